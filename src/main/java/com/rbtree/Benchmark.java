@@ -0,0 +1,195 @@
+package com.rbtree;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+// Insert/search/delete benchmark behind /benchmark.
+// Each trial builds a fresh tree (with JSON saving off, so we time the tree and not the disk),
+// inserts every key, searches every key, then deletes every key.
+//   - warm-up trials run the exact same code but are thrown away (lets the JIT settle)
+//   - measured trials record every single operation into a LatencyHistogram
+//   - allocated bytes come from the current thread's allocation counter (HotSpot ThreadMXBean)
+// Per-op timing adds two System.nanoTime() calls (~20-50 ns) to each operation; totals include that too.
+public class Benchmark {
+
+    public static final int MAX_N = 5_000_000;
+    // n * (warmup + trials) keys are inserted, searched and deleted in total; the handler thread shares the
+    // process with live tree traffic, so the whole run is capped, not just n (the visualizer peaks at 6M)
+    public static final long MAX_TOTAL_KEYS = 20_000_000;
+
+    static final int INSERT = 0;
+    static final int SEARCH = 1;
+    static final int DELETE = 2;
+    private static final String[] PHASES = {"insert", "search", "delete"};
+
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+
+    // keeps search results alive so the JIT can't drop the calls
+    private static volatile int sink;
+
+    private final int n;
+    private final String type;
+    private final long seed;
+    private final int warmup;
+    private final int trials;
+
+    private final LatencyHistogram[] latency = new LatencyHistogram[PHASES.length];
+    private final long[] totalNanos = new long[PHASES.length];
+    private final long[] allocatedBytes = new long[PHASES.length];
+
+    private Benchmark(int n, String type, long seed, int warmup, int trials) {
+        this.n = n;
+        this.type = type;
+        this.seed = seed;
+        this.warmup = warmup;
+        this.trials = trials;
+        for (int i = 0; i < PHASES.length; i++) latency[i] = new LatencyHistogram();
+    }
+
+    public static Benchmark run(int n, String type, long seed, int warmup, int trials) {
+        if (n < 1 || n > MAX_N) throw new IllegalArgumentException("n must be between 1 and " + MAX_N);
+        if (warmup < 0 || trials < 1) throw new IllegalArgumentException("need warmup >= 0 and trials >= 1");
+        // long math: warmup + trials can overflow an int
+        if ((long) n * ((long) warmup + trials) > MAX_TOTAL_KEYS) {
+            throw new IllegalArgumentException("n * (warmup + trials) must be at most " + MAX_TOTAL_KEYS);
+        }
+
+        Benchmark b = new Benchmark(n, type, seed, warmup, trials);
+        int[] data = generateInput(n, type, seed);
+        for (int t = 0; t < warmup + trials; t++) {
+            b.runTrial(data, t >= warmup);
+        }
+        return b;
+    }
+
+    // sorted / reverse are the classic BST worst cases; everything else comes from KeyGenerator.
+    // "random" is kept as the old name for uniform over [0, 10n).
+    public static int[] generateInput(int n, String type, long seed) {
+        int[] arr = new int[n];
+        switch (type) {
+            case "sorted":
+                for (int i = 0; i < n; i++) arr[i] = i;
+                return arr;
+            case "reverse":
+                for (int i = 0; i < n; i++) arr[i] = n - i;
+                return arr;
+            case "random":
+            case "uniform":
+            case "clustered":
+                fill(arr, KeyGenerator.create(type.equals("random") ? "uniform" : type, n * 10, seed));
+                return arr;
+            default:
+                // zipf, duplicates, hotspot, ... over n keys
+                fill(arr, KeyGenerator.create(type, n, seed));
+                return arr;
+        }
+    }
+
+    private static void fill(int[] arr, KeyGenerator keys) {
+        for (int i = 0; i < arr.length; i++) arr[i] = keys.nextKey();
+    }
+
+    private void runTrial(int[] data, boolean measured) {
+        RedBlackTree tree = new RedBlackTree();
+        tree.setPersistPath(null);
+        LatencyHistogram[] trial = new LatencyHistogram[PHASES.length];
+        for (int i = 0; i < PHASES.length; i++) trial[i] = new LatencyHistogram();
+        long[] nanos = new long[PHASES.length];
+        long[] bytes = new long[PHASES.length];
+
+        // 1. Insert everything
+        long alloc = allocatedBytes();
+        long start = System.nanoTime();
+        for (int x : data) {
+            long t0 = System.nanoTime();
+            tree.insert(x);
+            trial[INSERT].record(System.nanoTime() - t0);
+        }
+        nanos[INSERT] = System.nanoTime() - start;
+        bytes[INSERT] = allocatedBytes() - alloc;
+
+        // 2. Search for every item we just added
+        int found = 0;
+        alloc = allocatedBytes();
+        start = System.nanoTime();
+        for (int x : data) {
+            long t0 = System.nanoTime();
+            if (tree.search(x) != null) found++;
+            trial[SEARCH].record(System.nanoTime() - t0);
+        }
+        nanos[SEARCH] = System.nanoTime() - start;
+        bytes[SEARCH] = allocatedBytes() - alloc;
+        sink = found;
+
+        // 3. Remove everything
+        alloc = allocatedBytes();
+        start = System.nanoTime();
+        for (int x : data) {
+            long t0 = System.nanoTime();
+            tree.delete(x);
+            trial[DELETE].record(System.nanoTime() - t0);
+        }
+        nanos[DELETE] = System.nanoTime() - start;
+        bytes[DELETE] = allocatedBytes() - alloc;
+
+        if (!measured) return;
+        for (int i = 0; i < PHASES.length; i++) {
+            latency[i].merge(trial[i]);
+            totalNanos[i] += nanos[i];
+            allocatedBytes[i] += bytes[i];
+        }
+    }
+
+    // Heap bytes each inserted key cost, as measured (one Node per key, nothing else with saving off)
+    public double bytesPerKey() {
+        return allocatedBytes[INSERT] < 0 ? -1 : (double) allocatedBytes[INSERT] / ((long) n * trials);
+    }
+
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{");
+        json.append(String.format(Locale.ROOT,
+            "\"n\": %d, \"type\": \"%s\", \"seed\": %d, \"warmup\": %d, \"trials\": %d, ",
+            n, type, seed, warmup, trials));
+        // average milliseconds per trial for each phase (same fields the old endpoint returned)
+        for (int i = 0; i < PHASES.length; i++) {
+            json.append(String.format(Locale.ROOT, "\"%s\": %.4f, ", PHASES[i], totalNanos[i] / 1e6 / trials));
+        }
+        json.append("\"latencyNs\": {");
+        for (int i = 0; i < PHASES.length; i++) {
+            LatencyHistogram h = latency[i];
+            if (i > 0) json.append(", ");
+            json.append(String.format(Locale.ROOT,
+                "\"%s\": {\"mean\": %.1f, \"p50\": %d, \"p99\": %d, \"p999\": %d, \"max\": %d}",
+                PHASES[i], h.getMean(), h.getValueAtPercentile(50), h.getValueAtPercentile(99),
+                h.getValueAtPercentile(99.9), h.getMax()));
+        }
+        json.append("}, \"allocBytesPerOp\": {");
+        for (int i = 0; i < PHASES.length; i++) {
+            if (i > 0) json.append(", ");
+            double perOp = allocatedBytes[i] < 0 ? -1 : (double) allocatedBytes[i] / ((long) n * trials);
+            json.append(String.format(Locale.ROOT, "\"%s\": %.1f", PHASES[i], perOp));
+        }
+        json.append(String.format(Locale.ROOT, "}, \"bytesPerKey\": %.1f, \"estimatedNodeBytes\": %d}",
+            bytesPerKey(), MemoryReport.nodeBytes()));
+        return json.toString();
+    }
+
+    // -1 when the JVM can't count per-thread allocations (the JSON then reports -1)
+    private static long allocatedBytes() {
+        if (THREADS == null) return -1;
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        try {
+            java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (!(bean instanceof com.sun.management.ThreadMXBean)) return null;
+            com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) bean;
+            if (!hotspot.isThreadAllocatedMemorySupported()) return null;
+            hotspot.setThreadAllocatedMemoryEnabled(true);
+            return hotspot;
+        } catch (RuntimeException | LinkageError e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,402 @@
+package com.rbtree;
+
+import java.util.Arrays;
+
+// Array-backed red-black tree with a much smaller per-key footprint than Node.
+// Every key lives in three parallel int arrays (keys, left, right) instead of its own object:
+//   - no object header per key
+//   - no parent pointer: insert/delete remember the path they walked in a small stack
+//   - the color bit rides in the top bit of the left link (slot indices never need it)
+// Slot 0 is the NIL sentinel (always black), so a link of 0 means "no child".
+// Balancing follows the same cases as RedBlackTree, just addressed through the path stack.
+public class CompactRedBlackTree {
+
+    private static final int NIL = 0;
+    private static final int RED_BIT = 0x80000000;
+    private static final int INDEX_MASK = 0x7FFFFFFF;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    // Height of a red-black tree is at most 2*log2(n+1), so 64 covers any int-indexed tree.
+    // Delete case 1 pushes one extra entry, hence the slack.
+    private static final int MAX_PATH = 2 * 32 + 4;
+
+    private int[] keys;
+    private int[] left;   // high bit = color (1 = red), rest = left child slot
+    private int[] right;  // right child slot; also threads the free list of deleted slots
+
+    private int root = NIL;
+    private int size;
+    private int nextSlot = 1;     // slots [1, nextSlot) have been handed out at least once
+    private int freeList = NIL;   // head of the deleted-slot chain
+
+    // ancestors of the node being inserted/deleted, root first
+    private final int[] path = new int[MAX_PATH];
+
+    public CompactRedBlackTree() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public CompactRedBlackTree(int initialCapacity) {
+        int capacity = Math.max(2, initialCapacity + 1); // +1 for the NIL slot
+        keys = new int[capacity];
+        left = new int[capacity];
+        right = new int[capacity];
+    }
+
+    // ---- link / color accessors ----
+
+    private int left(int n) { return left[n] & INDEX_MASK; }
+    private int right(int n) { return right[n]; }
+
+    // keep the node's own color bit when relinking
+    private void setLeft(int n, int child) { left[n] = (left[n] & RED_BIT) | child; }
+    private void setRight(int n, int child) { right[n] = child; }
+
+    private boolean isRed(int n) { return (left[n] & RED_BIT) != 0; }
+
+    private void setRed(int n, boolean red) {
+        if (n == NIL) return; // NIL stays black
+        left[n] = red ? (left[n] | RED_BIT) : (left[n] & INDEX_MASK);
+    }
+
+    // ---- public API ----
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized boolean contains(int key) {
+        int x = root;
+        while (x != NIL) {
+            int cmp = Integer.compare(key, keys[x]);
+            if (cmp == 0) return true;
+            x = (cmp < 0) ? left(x) : right(x);
+        }
+        return false;
+    }
+
+    // Same semantics as RedBlackTree.insert: duplicates are kept and go to the right.
+    public synchronized void insert(int data) {
+        int depth = 0;
+        int parent = NIL;
+        int x = root;
+        while (x != NIL) {
+            path[depth++] = x;
+            parent = x;
+            x = (data < keys[x]) ? left(x) : right(x);
+        }
+
+        int z = allocate(data);
+        if (parent == NIL) {
+            root = z;
+        } else if (data < keys[parent]) {
+            setLeft(parent, z);
+        } else {
+            setRight(parent, z);
+        }
+        size++;
+
+        path[depth] = z;
+        insertFixup(depth);
+    }
+
+    // Removes one occurrence of data. Returns false if it wasn't in the tree.
+    public synchronized boolean delete(int data) {
+        int depth = 0;
+        int z = root;
+        while (z != NIL && keys[z] != data) {
+            path[depth++] = z;
+            z = (data < keys[z]) ? left(z) : right(z);
+        }
+        if (z == NIL) return false;
+
+        // Two children: copy the in-order successor's key into z and remove the successor instead.
+        // Keys are the only payload, so this is equivalent to moving the node.
+        int y = z;
+        if (left(z) != NIL && right(z) != NIL) {
+            path[depth++] = z;
+            y = right(z);
+            while (left(y) != NIL) {
+                path[depth++] = y;
+                y = left(y);
+            }
+            keys[z] = keys[y];
+        }
+
+        // y has at most one child now: splice it out
+        int child = (left(y) != NIL) ? left(y) : right(y);
+        int parent = (depth > 0) ? path[depth - 1] : NIL;
+        boolean childIsLeft = parent != NIL && left(parent) == y;
+        boolean removedBlack = !isRed(y);
+        replaceChild(parent, y, child);
+        release(y);
+        size--;
+
+        // If a black node was removed, fix double-black property
+        if (removedBlack) {
+            deleteFixup(child, depth, childIsLeft);
+        }
+        return true;
+    }
+
+    // In-order (sorted) copy of all keys. Iterative, uses an explicit stack like insert/delete.
+    public synchronized int[] toSortedArray() {
+        int[] out = new int[size];
+        int[] stack = new int[MAX_PATH];
+        int top = 0;
+        int i = 0;
+        int x = root;
+        while (x != NIL || top > 0) {
+            while (x != NIL) {
+                stack[top++] = x;
+                x = left(x);
+            }
+            x = stack[--top];
+            out[i++] = keys[x];
+            x = right(x);
+        }
+        return out;
+    }
+
+    // Bytes held by the backing arrays (including spare capacity and the NIL slot).
+    public synchronized long estimatedBytes() {
+        return bytesForCapacity(keys.length);
+    }
+
+    // Estimated heap size of a tree whose arrays have `slots` entries (NIL slot included).
+    // The one place that knows this class's layout; keep it in step with the fields above.
+    // MemoryReport uses it too, with slots = keys + 1.
+    static long bytesForCapacity(int slots) {
+        return MemoryReport.objectBytes(MemoryReport.OBJECT_HEADER
+                + 4 * 4                          // root, size, nextSlot, freeList
+                + 4 * MemoryReport.REFERENCE)    // keys, left, right, path
+            + 3 * MemoryReport.intArrayBytes(slots)
+            + MemoryReport.intArrayBytes(MAX_PATH);
+    }
+
+    public synchronized double bytesPerEntry() {
+        return size == 0 ? 0.0 : (double) estimatedBytes() / size;
+    }
+
+    // Walks the whole tree and checks BST order, no red-red and equal black heights.
+    // Returns the black height (NIL counts as 1); throws IllegalStateException on a violation.
+    synchronized int validate() {
+        if (isRed(root)) throw new IllegalStateException("Root is RED");
+        return validate(root, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    private int validate(int n, long lo, long hi) {
+        if (n == NIL) return 1;
+        if (keys[n] < lo || keys[n] > hi) {
+            throw new IllegalStateException("BST order broken at key " + keys[n]);
+        }
+        if (isRed(n) && (isRed(left(n)) || isRed(right(n)))) {
+            throw new IllegalStateException("Red node " + keys[n] + " has a RED child");
+        }
+        int l = validate(left(n), lo, keys[n]);
+        int r = validate(right(n), keys[n], hi);
+        if (l != r) {
+            throw new IllegalStateException("Black height mismatch at node " + keys[n] + ". Left path: " + l + ", Right path: " + r);
+        }
+        return l + (isRed(n) ? 0 : 1);
+    }
+
+    // ---- balancing ----
+
+    // path[i] is the freshly inserted red node, path[0..i-1] are its ancestors.
+    // Same three cases as RedBlackTree.fixViolations, walking the stack instead of parent links.
+    private void insertFixup(int i) {
+        while (i > 0 && isRed(path[i - 1])) {
+            int z = path[i];
+            int p = path[i - 1];
+            int g = path[i - 2];                     // parent is red so it isn't the root
+            int gg = (i >= 3) ? path[i - 3] : NIL;
+
+            if (p == left(g)) {
+                int uncle = right(g);
+                // Case 1: Uncle is RED -> recolor and move check up the tree
+                if (isRed(uncle)) {
+                    setRed(p, false);
+                    setRed(uncle, false);
+                    setRed(g, true);
+                    i -= 2;
+                    continue;
+                }
+                // Case 2: z is a RIGHT child (Triangle) -> rotate parent left
+                if (z == right(p)) {
+                    rotateLeft(p, g);
+                    p = z;
+                }
+                // Case 3: Line -> color parent BLACK, grandparent RED, rotate grandparent right
+                setRed(p, false);
+                setRed(g, true);
+                rotateRight(g, gg);
+            } else {
+                int uncle = left(g);
+                if (isRed(uncle)) {
+                    setRed(p, false);
+                    setRed(uncle, false);
+                    setRed(g, true);
+                    i -= 2;
+                    continue;
+                }
+                if (z == left(p)) {
+                    rotateRight(p, g);
+                    p = z;
+                }
+                setRed(p, false);
+                setRed(g, true);
+                rotateLeft(g, gg);
+            }
+            break;
+        }
+
+        // FINAL STEP: The Root must always be BLACK
+        setRed(root, false);
+    }
+
+    // x sits at level depth (x may be NIL), path[0..depth-1] are its ancestors.
+    // Mirrors RedBlackTree.rbDeleteFixup; case 1 rotates the sibling above the parent,
+    // so the stack is patched to keep path[depth-1] == parent of x.
+    private void deleteFixup(int x, int depth, boolean xIsLeft) {
+        while (depth > 0 && !isRed(x)) {
+            int parent = path[depth - 1];
+            int grand = (depth >= 2) ? path[depth - 2] : NIL;
+
+            if (xIsLeft) {
+                int w = right(parent); // sibling
+                // Case 1: sibling is red
+                if (isRed(w)) {
+                    setRed(w, false);
+                    setRed(parent, true);
+                    rotateLeft(parent, grand);
+                    path[depth - 1] = w;
+                    path[depth] = parent;
+                    depth++;
+                    grand = w;
+                    w = right(parent);
+                }
+                // Case 2: sibling is black and both children black
+                if (!isRed(left(w)) && !isRed(right(w))) {
+                    setRed(w, true);
+                    x = parent;
+                    depth--;
+                    xIsLeft = depth > 0 && left(path[depth - 1]) == x;
+                } else {
+                    // Case 3: sibling black, left red, right black
+                    if (!isRed(right(w))) {
+                        setRed(left(w), false);
+                        setRed(w, true);
+                        w = rotateRight(w, parent);
+                    }
+                    // Case 4: sibling black, right red
+                    setRed(w, isRed(parent));
+                    setRed(parent, false);
+                    setRed(right(w), false);
+                    rotateLeft(parent, grand);
+                    x = root;
+                    break;
+                }
+            } else {
+                int w = left(parent);
+                // Case 1 mirror: sibling is red
+                if (isRed(w)) {
+                    setRed(w, false);
+                    setRed(parent, true);
+                    rotateRight(parent, grand);
+                    path[depth - 1] = w;
+                    path[depth] = parent;
+                    depth++;
+                    grand = w;
+                    w = left(parent);
+                }
+                // Case 2 mirror: sibling's children both black
+                if (!isRed(left(w)) && !isRed(right(w))) {
+                    setRed(w, true);
+                    x = parent;
+                    depth--;
+                    xIsLeft = depth > 0 && left(path[depth - 1]) == x;
+                } else {
+                    // Case 3 mirror: sibling left black, right red -> rotate sibling
+                    if (!isRed(left(w))) {
+                        setRed(right(w), false);
+                        setRed(w, true);
+                        w = rotateLeft(w, parent);
+                    }
+                    // Case 4 mirror: sibling left red
+                    setRed(w, isRed(parent));
+                    setRed(parent, false);
+                    setRed(left(w), false);
+                    rotateRight(parent, grand);
+                    x = root;
+                    break;
+                }
+            }
+        }
+
+        setRed(x, false);
+    }
+
+    // Rotations take the pivot's parent explicitly since nodes don't store it.
+    // Both return the node that took the pivot's place.
+    private int rotateLeft(int pivot, int parent) {
+        int newParent = right(pivot);
+        setRight(pivot, left(newParent));
+        setLeft(newParent, pivot);
+        replaceChild(parent, pivot, newParent);
+        return newParent;
+    }
+
+    private int rotateRight(int pivot, int parent) {
+        int newParent = left(pivot);
+        setLeft(pivot, right(newParent));
+        setRight(newParent, pivot);
+        replaceChild(parent, pivot, newParent);
+        return newParent;
+    }
+
+    private void replaceChild(int parent, int oldChild, int newChild) {
+        if (parent == NIL) {
+            root = newChild;
+        } else if (left(parent) == oldChild) {
+            setLeft(parent, newChild);
+        } else {
+            setRight(parent, newChild);
+        }
+    }
+
+    // ---- slot management ----
+
+    private int allocate(int data) {
+        int slot;
+        if (freeList != NIL) {
+            slot = freeList;
+            freeList = right[slot];
+        } else {
+            if (nextSlot == keys.length) grow();
+            slot = nextSlot++;
+        }
+        keys[slot] = data;
+        left[slot] = RED_BIT; // new nodes start RED with no children
+        right[slot] = NIL;
+        return slot;
+    }
+
+    private void release(int slot) {
+        left[slot] = NIL;
+        right[slot] = freeList;
+        freeList = slot;
+    }
+
+    private void grow() {
+        int oldCapacity = keys.length;
+        int newCapacity = oldCapacity + (oldCapacity >> 1);
+        if (newCapacity < 0 || newCapacity > INDEX_MASK) {
+            if (oldCapacity == INDEX_MASK) throw new IllegalStateException("CompactRedBlackTree is full");
+            newCapacity = INDEX_MASK;
+        }
+        keys = Arrays.copyOf(keys, newCapacity);
+        left = Arrays.copyOf(left, newCapacity);
+        right = Arrays.copyOf(right, newCapacity);
+    }
+}
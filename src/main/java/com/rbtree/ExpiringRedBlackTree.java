@@ -0,0 +1,188 @@
+package com.rbtree;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+// Adds per-key expiry on top of a RedBlackTree.
+// Keys inserted with a TTL are also recorded in a secondary index ordered by expiry time,
+// so the next keys to expire are always at the front and eviction never scans the whole tree.
+// Eviction is incremental:
+//   - every insert/delete first removes at most `evictionBudget` expired keys
+//   - optionally a background thread does the same in small batches, releasing the lock between batches
+// Evicted keys are removed with RedBlackTree.deleteQuietly, so a whole batch costs one JSON save, not one per key.
+//
+// A key is either permanent or expiring, never both: the tree allows duplicates, but copies are
+// indistinguishable, so mixing the two would leave no way to tell which copy a delete or an eviction removed.
+// Mixing is rejected with IllegalArgumentException (an already expired key can be re-inserted either way).
+//
+// Until a key is evicted it is still in the tree: contains() hides it, but tree.search(), /nodes and /range
+// keep returning it for up to one eviction period.
+public class ExpiringRedBlackTree {
+
+    private static final int DEFAULT_EVICTION_BUDGET = 4;
+
+    private final RedBlackTree tree;
+    private final LongSupplier clock;
+    private final int evictionBudget;
+
+    // secondary index: expiry order, ties broken by key
+    private final TreeSet<Expiry> byExpiry = new TreeSet<>();
+    // key -> its entry in byExpiry, so refresh/delete can find it
+    private final Map<Integer, Expiry> byKey = new HashMap<>();
+
+    private ScheduledExecutorService evictor;
+
+    public ExpiringRedBlackTree(RedBlackTree tree) {
+        this(tree, System::currentTimeMillis, DEFAULT_EVICTION_BUDGET);
+    }
+
+    // clock is in milliseconds; evictionBudget is how many expired keys each operation may remove
+    public ExpiringRedBlackTree(RedBlackTree tree, LongSupplier clock, int evictionBudget) {
+        if (evictionBudget < 0) throw new IllegalArgumentException("evictionBudget must be >= 0");
+        this.tree = tree;
+        this.clock = clock;
+        this.evictionBudget = evictionBudget;
+    }
+
+    public RedBlackTree getTree() {
+        return tree;
+    }
+
+    // Plain insert, the key never expires. Duplicates of other permanent keys are fine.
+    public synchronized void insert(int key) {
+        long now = clock.getAsLong();
+        evictQuietly(evictionBudget, now);
+        Expiry scheduled = byKey.get(key);
+        if (scheduled != null) {
+            if (scheduled.expiresAt > now) {
+                throw new IllegalArgumentException("Key " + key + " is scheduled to expire; delete it first");
+            }
+            evict(scheduled); // already expired, it just hadn't been swept yet
+        }
+        tree.insert(key); // saves the JSON, evictions included
+    }
+
+    // Inserts key and schedules it to expire ttlMillis from now.
+    // If the key is already scheduled, its expiry is just pushed out (no duplicate is added).
+    public synchronized void insert(int key, long ttlMillis) {
+        if (ttlMillis <= 0) throw new IllegalArgumentException("ttlMillis must be > 0");
+        long now = clock.getAsLong();
+        int evicted = evictQuietly(evictionBudget, now);
+
+        Expiry old = byKey.remove(key);
+        if (old != null) {
+            byExpiry.remove(old);
+            if (evicted > 0) tree.persist();
+        } else if (tree.search(key) != null) {
+            if (evicted > 0) tree.persist();
+            throw new IllegalArgumentException("Key " + key + " is already stored without a TTL");
+        } else {
+            tree.insert(key);
+        }
+        Expiry entry = new Expiry(now + ttlMillis, key);
+        byExpiry.add(entry);
+        byKey.put(key, entry);
+    }
+
+    // Removes one copy of key (the only copy, if it's an expiring key).
+    public synchronized void delete(int key) {
+        int evicted = evictQuietly(evictionBudget, clock.getAsLong());
+        Expiry old = byKey.remove(key);
+        if (old != null) byExpiry.remove(old);
+        boolean removed = tree.deleteQuietly(key);
+        if (removed || evicted > 0) tree.persist();
+    }
+
+    // Like tree.search(key) != null, but a key whose TTL has passed counts as gone even before it's evicted.
+    public synchronized boolean contains(int key) {
+        Expiry e = byKey.get(key);
+        if (e != null) return e.expiresAt > clock.getAsLong();
+        return tree.search(key) != null;
+    }
+
+    // Expiry time (clock millis) of key, or -1 if it isn't scheduled to expire.
+    public synchronized long expiresAt(int key) {
+        Expiry e = byKey.get(key);
+        return e == null ? -1 : e.expiresAt;
+    }
+
+    // Number of keys currently scheduled to expire (expired-but-not-yet-evicted included).
+    public synchronized int scheduledCount() {
+        return byKey.size();
+    }
+
+    // Removes up to maxEntries keys whose expiry has passed and saves the JSON once. Returns how many were removed.
+    public synchronized int evictExpired(int maxEntries) {
+        int evicted = evictQuietly(maxEntries, clock.getAsLong());
+        if (evicted > 0) tree.persist();
+        return evicted;
+    }
+
+    // The eviction loop itself; the caller saves the JSON (or lets its own tree.insert do it)
+    private int evictQuietly(int maxEntries, long now) {
+        int evicted = 0;
+        while (evicted < maxEntries && !byExpiry.isEmpty()) {
+            Expiry first = byExpiry.first();
+            if (first.expiresAt > now) break; // everything after this expires later
+            evict(first);
+            evicted++;
+        }
+        return evicted;
+    }
+
+    private void evict(Expiry e) {
+        byExpiry.remove(e);
+        byKey.remove(e.key);
+        tree.deleteQuietly(e.key);
+    }
+
+    // Starts a daemon thread that evicts expired keys every periodMillis, batchSize at a time.
+    // The lock is released between batches so tree operations never wait for a full sweep.
+    public synchronized void startBackgroundEviction(long periodMillis, int batchSize) {
+        if (batchSize <= 0) throw new IllegalArgumentException("batchSize must be > 0");
+        if (evictor != null) return;
+        evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "rbtree-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        evictor.scheduleWithFixedDelay(() -> {
+            try {
+                while (evictExpired(batchSize) == batchSize) {
+                    Thread.yield();
+                }
+            } catch (RuntimeException e) {
+                // keep the schedule alive; a failing tick shouldn't stop future eviction
+                System.err.println("Background eviction failed: " + e.getMessage());
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stopBackgroundEviction() {
+        if (evictor == null) return;
+        evictor.shutdownNow();
+        evictor = null;
+    }
+
+    // One entry in the expiry index
+    private static final class Expiry implements Comparable<Expiry> {
+        final long expiresAt;
+        final int key;
+
+        Expiry(long expiresAt, int key) {
+            this.expiresAt = expiresAt;
+            this.key = key;
+        }
+
+        @Override
+        public int compareTo(Expiry o) {
+            int cmp = Long.compare(expiresAt, o.expiresAt);
+            return cmp != 0 ? cmp : Integer.compare(key, o.key);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.rbtree;
+
+// Node for IntervalRedBlackTree: data is the interval start (the BST key).
+public class IntervalNode extends Node {
+
+    // interval end (inclusive)
+    int end;
+
+    // largest end anywhere in this node's subtree
+    int maxEnd;
+
+    // CONSTRUCTOR
+    public IntervalNode(int start, int end) {
+        super(start);
+        this.end = end;
+        this.maxEnd = end;
+    }
+}
@@ -0,0 +1,164 @@
+package com.rbtree;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+// Interval tree on top of RedBlackTree's balancing (CLRS 14.3).
+// Nodes are keyed by interval start and each one also keeps the largest end in its subtree (maxEnd).
+// maxEnd only changes along the insert/delete path and in the nodes a rotation touches,
+// so keeping it right costs O(log n) per update through the RedBlackTree hooks.
+// Intervals are closed: [start, end] contains both endpoints.
+//
+// Query cost: the maxEnd walk is O(min(n, k log n)) for k results, not the O(log n + k) of a
+// centered or priority-search tree. Each reported interval can cost its own O(log n) descent, so it
+// only approaches O(log n + k) when the matches sit close together in start order.
+// We kept the plain augmented red-black tree because it reuses RedBlackTree's balancing unchanged.
+public class IntervalRedBlackTree extends RedBlackTree {
+
+    // Receives query results one at a time. Return false to stop the query early.
+    public interface IntervalVisitor {
+        boolean visit(int start, int end);
+    }
+
+    public synchronized void insert(int start, int end) {
+        if (end < start) {
+            throw new IllegalArgumentException("Interval end " + end + " is before start " + start);
+        }
+        insertNode(new IntervalNode(start, end));
+    }
+
+    // A plain key is stored as the point interval [data, data].
+    @Override
+    public synchronized void insert(int data) {
+        insert(data, data);
+    }
+
+    // Removes one interval exactly matching [start, end]. Returns false if there is none.
+    public synchronized boolean delete(int start, int end) {
+        IntervalNode node = findExact(start, end);
+        if (node == null) return false;
+        deleteNode(node);
+        return true;
+    }
+
+    // Removes one interval starting at data (whatever its end). Does nothing if there is none.
+    @Override
+    public synchronized void delete(int data) {
+        Node node = search(data);
+        if (node != null) deleteNode(node);
+    }
+
+    // Snapshots only carry keys (interval starts), so each value comes back as the point interval [v, v].
+    // The base version would build plain Nodes, which the maxEnd hooks can't handle.
+    // Like every other interval mutator this neither saves the visualization JSON nor tells MutationListeners:
+    // both only carry plain keys, so an interval tree can't be drawn or replicated without losing the ends.
+    @Override
+    public synchronized void loadSnapshot(int[] values) {
+        clearNodes();
+        for (int v : values) {
+            insert(v, v);
+        }
+    }
+
+    // Same as getNodeCount(): one node per interval
+    public int size() {
+        return getNodeCount();
+    }
+
+    // Every interval containing point, streamed to visitor.
+    public void stab(int point, IntervalVisitor visitor) {
+        overlapping(point, point, visitor);
+    }
+
+    // Every interval overlapping [from, to], streamed to visitor.
+    // Iterative walk that skips any subtree whose maxEnd < from, and right subtrees once start > to.
+    // Every node it visits is on, or one step off, the root path of a reported interval (or the one
+    // search path that finds nothing), hence O(min(n, k log n)) rather than O(log n + k).
+    public synchronized void overlapping(int from, int to, IntervalVisitor visitor) {
+        ArrayDeque<IntervalNode> stack = new ArrayDeque<>();
+        if (root != null) stack.push((IntervalNode) root);
+
+        while (!stack.isEmpty()) {
+            IntervalNode node = stack.pop();
+            // nothing down here reaches far enough right
+            if (node.maxEnd < from) continue;
+
+            // starts only grow to the right, so once start > to only the left side can match
+            if (node.data <= to) {
+                if (node.right != null) stack.push((IntervalNode) node.right);
+                if (node.end >= from && !visitor.visit(node.data, node.end)) return;
+            }
+            // left subtree can still overlap (starts are smaller)
+            if (node.left != null) stack.push((IntervalNode) node.left);
+        }
+    }
+
+    // Convenience: collects overlapping() into a list of {start, end} pairs.
+    public List<int[]> overlapping(int from, int to) {
+        List<int[]> out = new ArrayList<>();
+        overlapping(from, to, (start, end) -> {
+            out.add(new int[] {start, end});
+            return true;
+        });
+        return out;
+    }
+
+    public List<int[]> stab(int point) {
+        return overlapping(point, point);
+    }
+
+    // --- augmentation hooks ---
+
+    @Override
+    protected void afterInsert(Node newNode) {
+        // the new leaf can only raise maxEnd on its ancestors
+        int end = ((IntervalNode) newNode).end;
+        for (Node p = newNode.parent; p != null; p = p.parent) {
+            IntervalNode ip = (IntervalNode) p;
+            if (ip.maxEnd >= end) break;
+            ip.maxEnd = end;
+        }
+    }
+
+    @Override
+    protected void afterRotate(Node pivot, Node newParent) {
+        // pivot moved below newParent, so fix it first
+        updateMaxEnd((IntervalNode) pivot);
+        updateMaxEnd((IntervalNode) newParent);
+    }
+
+    @Override
+    protected void afterRemove(Node lowest) {
+        for (Node p = lowest; p != null; p = p.parent) {
+            updateMaxEnd((IntervalNode) p);
+        }
+    }
+
+    private static void updateMaxEnd(IntervalNode n) {
+        int max = n.end;
+        if (n.left != null) max = Math.max(max, ((IntervalNode) n.left).maxEnd);
+        if (n.right != null) max = Math.max(max, ((IntervalNode) n.right).maxEnd);
+        n.maxEnd = max;
+    }
+
+    // Equal starts can sit on either side of each other after rotations, so look at both subtrees then.
+    private IntervalNode findExact(int start, int end) {
+        ArrayDeque<IntervalNode> stack = new ArrayDeque<>();
+        if (root != null) stack.push((IntervalNode) root);
+        while (!stack.isEmpty()) {
+            IntervalNode node = stack.pop();
+            if (node.maxEnd < end) continue;
+            if (start < node.data) {
+                if (node.left != null) stack.push((IntervalNode) node.left);
+            } else if (start > node.data) {
+                if (node.right != null) stack.push((IntervalNode) node.right);
+            } else {
+                if (node.end == end) return node;
+                if (node.left != null) stack.push((IntervalNode) node.left);
+                if (node.right != null) stack.push((IntervalNode) node.right);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,105 @@
+package com.rbtree;
+
+import java.util.SplittableRandom;
+
+// Seeded key streams for load tests and benchmarks. Same (distribution, keySpace, seed) -> same keys.
+// Keys are in [0, keySpace).
+//   uniform    - every key equally likely
+//   sequential - 0, 1, 2, ... wrapping at keySpace
+//   hotspot    - 90% of draws hit the first 10% of the key space
+//   zipf       - Zipfian with theta 0.99 (key 0 hottest), like YCSB's default
+//   clustered  - runs of 64 consecutive keys starting at random points
+//   duplicates - only keySpace / 100 distinct keys, so each one repeats ~100 times
+public abstract class KeyGenerator {
+
+    public abstract int nextKey();
+
+    public static KeyGenerator create(String distribution, int keySpace, long seed) {
+        if (keySpace <= 0) throw new IllegalArgumentException("keySpace must be > 0");
+        SplittableRandom rand = new SplittableRandom(seed);
+        switch (distribution) {
+            case "uniform":
+                return new KeyGenerator() {
+                    public int nextKey() { return rand.nextInt(keySpace); }
+                };
+            case "sequential":
+                return new KeyGenerator() {
+                    private int next;
+                    public int nextKey() {
+                        int k = next;
+                        next = (next + 1) % keySpace;
+                        return k;
+                    }
+                };
+            case "hotspot":
+                return new KeyGenerator() {
+                    private final int hot = Math.max(1, keySpace / 10);
+                    public int nextKey() {
+                        if (rand.nextInt(10) < 9) return rand.nextInt(hot);
+                        return keySpace == hot ? rand.nextInt(hot) : hot + rand.nextInt(keySpace - hot);
+                    }
+                };
+            case "zipf":
+                return new Zipfian(keySpace, 0.99, rand);
+            case "clustered":
+                return new KeyGenerator() {
+                    private int next;
+                    private int remaining;
+                    public int nextKey() {
+                        if (remaining == 0) {
+                            next = rand.nextInt(keySpace);
+                            remaining = 64;
+                        }
+                        remaining--;
+                        int k = next;
+                        next = (next + 1) % keySpace;
+                        return k;
+                    }
+                };
+            case "duplicates":
+                return new KeyGenerator() {
+                    private final int distinct = Math.max(1, keySpace / 100);
+                    public int nextKey() { return rand.nextInt(distinct); }
+                };
+            default:
+                throw new IllegalArgumentException("Unknown key distribution: " + distribution);
+        }
+    }
+
+    // Gray et al., "Quickly Generating Billion-Record Synthetic Databases" (SIGMOD '94):
+    // O(keySpace) setup to compute zeta(n), then O(1) per draw with no lookup table.
+    static final class Zipfian extends KeyGenerator {
+        private final int n;
+        private final double theta;
+        private final double alpha;
+        private final double zetaN;
+        private final double eta;
+        private final SplittableRandom rand;
+
+        Zipfian(int n, double theta, SplittableRandom rand) {
+            this.n = n;
+            this.theta = theta;
+            this.rand = rand;
+            this.alpha = 1.0 / (1.0 - theta);
+            this.zetaN = zeta(n, theta);
+            // with n <= 2, zeta(2) == zeta(n) and eta would be 0/0; nextKey never gets past the first two cases then
+            this.eta = n <= 2 ? 0 : (1 - Math.pow(2.0 / n, 1 - theta)) / (1 - zeta(2, theta) / zetaN);
+        }
+
+        private static double zeta(int n, double theta) {
+            double sum = 0;
+            for (int i = 1; i <= n; i++) sum += 1.0 / Math.pow(i, theta);
+            return sum;
+        }
+
+        @Override
+        public int nextKey() {
+            double u = rand.nextDouble();
+            double uz = u * zetaN;
+            if (uz < 1.0) return 0;
+            if (uz < 1.0 + Math.pow(0.5, theta)) return Math.min(1, n - 1);
+            int k = (int) (n * Math.pow(eta * u - eta + 1, alpha));
+            return Math.min(k, n - 1);
+        }
+    }
+}
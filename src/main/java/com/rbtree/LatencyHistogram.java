@@ -0,0 +1,86 @@
+package com.rbtree;
+
+// Fixed-memory latency histogram in the style of HdrHistogram (log-linear buckets, no dependency).
+// Values are nanoseconds. Each power-of-two range is split into SUB_BUCKETS / 2 linear slots,
+// so any recorded value is reported within ~0.8% of what was measured, from 1 ns up to Long.MAX_VALUE.
+// Not thread-safe: give each thread its own and merge() them at the end.
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 8;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF = SUB_BUCKETS / 2;
+    // highest shift needed for a 63-bit value, plus the unshifted first bucket
+    private static final int BUCKETS = 63 - SUB_BUCKET_BITS + 2;
+
+    private final long[] counts = new long[(BUCKETS + 1) * HALF];
+    private long totalCount;
+    private long totalNanos;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts[indexOf(nanos)]++;
+        totalCount++;
+        totalNanos += nanos;
+        if (nanos < min) min = nanos;
+        if (nanos > max) max = nanos;
+    }
+
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) counts[i] += other.counts[i];
+        totalCount += other.totalCount;
+        totalNanos += other.totalNanos;
+        if (other.min < min) min = other.min;
+        if (other.max > max) max = other.max;
+    }
+
+    public void reset() {
+        java.util.Arrays.fill(counts, 0);
+        totalCount = 0;
+        totalNanos = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    public long getCount() {
+        return totalCount;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public long getMin() {
+        return totalCount == 0 ? 0 : min;
+    }
+
+    public double getMean() {
+        return totalCount == 0 ? 0.0 : (double) totalNanos / totalCount;
+    }
+
+    // Smallest value v such that at least `percentile`% of recordings are <= v (bucket upper bound).
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) return 0;
+        long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) return Math.min(highestValueAt(i), max);
+        }
+        return max;
+    }
+
+    // Values below SUB_BUCKETS map 1:1; above that, drop low bits so the top SUB_BUCKET_BITS remain.
+    private static int indexOf(long value) {
+        int shift = Math.max(0, 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        int sub = (int) (value >>> shift);  // in [HALF, SUB_BUCKETS) once shift > 0
+        return shift * HALF + sub;
+    }
+
+    private static long highestValueAt(int index) {
+        int shift = Math.max(0, index / HALF - 1);
+        long sub = index - (long) shift * HALF;
+        return ((sub + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,250 @@
+package com.rbtree;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+// Standalone load generator for a running WebServer. Reports throughput and latency percentiles per endpoint.
+//
+//   java -cp target/classes com.rbtree.LoadGenerator --url http://localhost:8080 \
+//        --mode open --rate 2000 --threads 16 --duration 30 --warmup 5 \
+//        --mix insert=20,search=70,delete=5,nodes=5 --keys 100000 --dist zipf --seed 1
+//
+// Modes:
+//   closed - each thread sends its next request as soon as the previous one returns.
+//            Measures service time; a stalled server also stalls the load (coordinated omission).
+//   open   - requests are scheduled at a fixed total rate, and latency is measured from the time the
+//            request *should* have been sent. A stall shows up as latency for everything queued behind it,
+//            which is what a real client would see.
+public class LoadGenerator {
+
+    private static final String[] OPS = {"insert", "search", "delete", "nodes"};
+
+    private final String baseUrl;
+    private final String mode;
+    private final int threads;
+    private final double rate;         // requests/second across all threads (open mode)
+    private final long durationNanos;
+    private final long warmupNanos;
+    private final int[] mixWeights;    // indexed like OPS
+    private final int keySpace;
+    private final String distribution;
+    private final long seed;
+
+    private final HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1) // WebServer only speaks 1.1; skip the h2c upgrade attempt
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+
+    public LoadGenerator(Map<String, String> options) {
+        this.baseUrl = options.getOrDefault("url", "http://localhost:8080");
+        this.mode = options.getOrDefault("mode", "closed");
+        this.threads = Integer.parseInt(options.getOrDefault("threads", "4"));
+        this.rate = Double.parseDouble(options.getOrDefault("rate", "1000"));
+        this.durationNanos = (long) (Double.parseDouble(options.getOrDefault("duration", "10")) * 1e9);
+        this.warmupNanos = (long) (Double.parseDouble(options.getOrDefault("warmup", "2")) * 1e9);
+        this.mixWeights = parseMix(options.getOrDefault("mix", "insert=20,search=70,delete=5,nodes=5"));
+        this.keySpace = Integer.parseInt(options.getOrDefault("keys", "10000"));
+        this.distribution = options.getOrDefault("dist", "uniform");
+        this.seed = Long.parseLong(options.getOrDefault("seed", "1"));
+
+        if (!mode.equals("open") && !mode.equals("closed")) {
+            throw new IllegalArgumentException("--mode must be open or closed");
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) throw new IllegalArgumentException("Expected --option, got " + args[i]);
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        new LoadGenerator(options).run();
+    }
+
+    public void run() throws InterruptedException {
+        System.out.printf(Locale.ROOT, "%s-loop load against %s: %d threads, %s keys over %d, %.0fs (+%.0fs warm-up)%s%n",
+            mode, baseUrl, threads, distribution, keySpace, durationNanos / 1e9, warmupNanos / 1e9,
+            mode.equals("open") ? String.format(Locale.ROOT, ", target %.0f req/s", rate) : "");
+
+        List<Worker> workers = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            Worker w = new Worker(i, start);
+            workers.add(w);
+            w.start();
+        }
+        for (Worker w : workers) w.join();
+
+        // merge per-thread results
+        LatencyHistogram[] total = new LatencyHistogram[OPS.length];
+        long[] errors = new long[OPS.length];
+        for (int op = 0; op < OPS.length; op++) {
+            total[op] = new LatencyHistogram();
+            for (Worker w : workers) {
+                total[op].merge(w.histograms[op]);
+                errors[op] += w.errors[op];
+            }
+        }
+        report(total, errors);
+    }
+
+    private void report(LatencyHistogram[] perOp, long[] errors) {
+        double seconds = durationNanos / 1e9;
+        LatencyHistogram all = new LatencyHistogram();
+        long allErrors = 0;
+
+        System.out.printf(Locale.ROOT, "%-8s %10s %8s %10s %10s %10s %10s %10s%n",
+            "op", "count", "errors", "req/s", "p50(ms)", "p99(ms)", "p99.9(ms)", "max(ms)");
+        for (int op = 0; op < OPS.length; op++) {
+            if (mixWeights[op] == 0) continue;
+            printRow(OPS[op], perOp[op], errors[op], seconds);
+            all.merge(perOp[op]);
+            allErrors += errors[op];
+        }
+        printRow("all", all, allErrors, seconds);
+    }
+
+    private static void printRow(String name, LatencyHistogram h, long errors, double seconds) {
+        System.out.printf(Locale.ROOT, "%-8s %10d %8d %10.1f %10.3f %10.3f %10.3f %10.3f%n",
+            name, h.getCount(), errors, h.getCount() / seconds,
+            h.getValueAtPercentile(50) / 1e6, h.getValueAtPercentile(99) / 1e6,
+            h.getValueAtPercentile(99.9) / 1e6, h.getMax() / 1e6);
+    }
+
+    // "insert=20,search=70" -> weights indexed like OPS; missing ops get 0
+    private static int[] parseMix(String mix) {
+        int[] weights = new int[OPS.length];
+        for (String part : mix.split(",")) {
+            String[] kv = part.split("=");
+            int op = indexOfOp(kv[0].trim());
+            weights[op] = Integer.parseInt(kv[1].trim());
+        }
+        int sum = 0;
+        for (int w : weights) sum += w;
+        if (sum <= 0) throw new IllegalArgumentException("--mix needs at least one positive weight");
+        return weights;
+    }
+
+    private static int indexOfOp(String name) {
+        for (int i = 0; i < OPS.length; i++) {
+            if (OPS[i].equals(name)) return i;
+        }
+        throw new IllegalArgumentException("Unknown op in --mix: " + name);
+    }
+
+    private class Worker extends Thread {
+        final LatencyHistogram[] histograms = new LatencyHistogram[OPS.length];
+        final long[] errors = new long[OPS.length];
+        private final KeyGenerator keys;
+        private final SplittableRandom rand;
+        private final long start;
+        private final int totalWeight;
+        private final int index;
+
+        Worker(int index, long start) {
+            super("loadgen-" + index);
+            this.index = index;
+            this.start = start;
+            // distinct but reproducible stream per thread
+            this.keys = KeyGenerator.create(distribution, keySpace, seed + index);
+            this.rand = new SplittableRandom(seed * 31 + index);
+            int sum = 0;
+            for (int w : mixWeights) sum += w;
+            this.totalWeight = sum;
+            for (int i = 0; i < OPS.length; i++) histograms[i] = new LatencyHistogram();
+        }
+
+        @Override
+        public void run() {
+            long end = start + warmupNanos + durationNanos;
+            // open mode: each thread owns every threads-th slot of one global schedule
+            double intervalNanos = 1e9 / rate * threads;
+            long sent = 0;
+
+            while (true) {
+                long intended;
+                if (mode.equals("open")) {
+                    intended = start + (long) ((sent + (double) index / threads) * intervalNanos);
+                    if (intended >= end) break;
+                    sleepUntil(intended);
+                } else {
+                    intended = System.nanoTime();
+                    if (intended >= end) break;
+                }
+                sent++;
+
+                int op = pickOp();
+                boolean ok = send(op, keys.nextKey());
+                long latency = System.nanoTime() - intended;
+
+                // drop the warm-up window from the results
+                if (intended - start < warmupNanos) continue;
+                histograms[op].record(latency);
+                if (!ok) errors[op]++;
+            }
+        }
+
+        private int pickOp() {
+            int r = rand.nextInt(totalWeight);
+            for (int i = 0; i < mixWeights.length; i++) {
+                r -= mixWeights[i];
+                if (r < 0) return i;
+            }
+            return mixWeights.length - 1;
+        }
+
+        private boolean send(int op, int key) {
+            HttpRequest.Builder req;
+            switch (OPS[op]) {
+                case "insert":
+                    req = HttpRequest.newBuilder(URI.create(baseUrl + "/insert?value=" + key))
+                        .POST(HttpRequest.BodyPublishers.noBody());
+                    break;
+                case "delete":
+                    req = HttpRequest.newBuilder(URI.create(baseUrl + "/delete?value=" + key))
+                        .POST(HttpRequest.BodyPublishers.noBody());
+                    break;
+                case "search":
+                    req = HttpRequest.newBuilder(URI.create(baseUrl + "/search?value=" + key)).GET();
+                    break;
+                default:
+                    req = HttpRequest.newBuilder(URI.create(baseUrl + "/nodes")).GET();
+            }
+            try {
+                HttpResponse<Void> res = client.send(req.timeout(Duration.ofSeconds(30)).build(),
+                    HttpResponse.BodyHandlers.discarding());
+                return res.statusCode() == 200;
+            } catch (java.io.IOException e) {
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        private void sleepUntil(long deadline) {
+            long remaining;
+            while ((remaining = deadline - System.nanoTime()) > 0) {
+                if (remaining > 2_000_000) {
+                    try {
+                        Thread.sleep(remaining / 1_000_000 - 1);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                } else {
+                    Thread.onSpinWait();
+                }
+            }
+        }
+    }
+}
@@ -1,20 +1,55 @@
 package com.rbtree;
 
+// Usage:
+//   java com.rbtree.Main                                      single server on port 8080
+//   java com.rbtree.Main --replicate 9090                     leader: also streams mutations to followers on 9090
+//   java com.rbtree.Main --port 8081 --follow localhost:9090  read-only follower of that leader
 public class Main {
     public static void main(String[] args) {
+        int port = 8080;
+        int replicatePort = -1;
+        String follow = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--port": port = Integer.parseInt(args[i + 1]); break;
+                case "--replicate": replicatePort = Integer.parseInt(args[i + 1]); break;
+                case "--follow": follow = args[i + 1]; break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(1);
+            }
+        }
+
+        // The JDK server leaves Nagle on by default; headers and body go out in separate writes,
+        // so every response waited ~40 ms on the client's delayed ACK. Respect an explicit -D setting.
+        // The JDK reads this once, when the first HttpServer is created, so it has to be set before that.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+
         RedBlackTree rbt = new RedBlackTree();
 
-        // Clear any old visualization file at startup
-        try {
-            TreeSerializer.saveTreeToJson(null, "visualization/tree_data.json");
-        } catch (Exception e) {
-            System.err.println("Warning: couldn't clear previous visualization: " + e.getMessage());
+        if (follow != null) {
+            // Followers don't own the visualization file; they serve /tree.json from memory
+            rbt.setPersistPath(null);
+            String[] hostPort = follow.split(":");
+            new ReplicationFollower(rbt, hostPort[0], Integer.parseInt(hostPort[1])).start();
+        } else {
+            // Clear any old visualization file at startup
+            try {
+                TreeSerializer.saveTreeToJson(null, "visualization/tree_data.json");
+            } catch (Exception e) {
+                System.err.println("Warning: couldn't clear previous visualization: " + e.getMessage());
+            }
         }
 
         // Start web server
-        WebServer server = new WebServer(rbt, 8080);
+        WebServer server = new WebServer(rbt, port, follow != null);
         try {
             server.start();
+            if (replicatePort >= 0) {
+                new ReplicationLeader(rbt, replicatePort).start();
+            }
         } catch (Exception e) {
             System.err.println("Failed to start web server: " + e.getMessage());
             e.printStackTrace();
@@ -27,4 +62,4 @@ public class Main {
             Thread.currentThread().join();
         } catch (InterruptedException ignored) {}
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,72 @@
+package com.rbtree;
+
+import java.lang.management.ManagementFactory;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+
+// Rough heap-size estimates for the two node layouts, so we can see what each key really costs.
+// Numbers follow the usual HotSpot object layout (header + fields, padded to 8 bytes);
+// they're estimates, not measurements.
+public class MemoryReport {
+
+    static final boolean COMPRESSED_OOPS = detectCompressedOops();
+
+    // mark word + (compressed) class pointer
+    static final int OBJECT_HEADER = COMPRESSED_OOPS ? 12 : 16;
+    static final int REFERENCE = COMPRESSED_OOPS ? 4 : 8;
+    // object header + int length
+    static final int ARRAY_HEADER = OBJECT_HEADER + 4;
+
+    private final int keys;
+    private final long nodeBytesPerEntry;
+    private final long nodeTotalBytes;
+    private final long compactTotalBytes;
+
+    private MemoryReport(int keys) {
+        this.keys = keys;
+        this.nodeBytesPerEntry = nodeBytes();
+        // just the Nodes: the RedBlackTree object (listeners, persist path, ...) is fixed overhead
+        this.nodeTotalBytes = keys * nodeBytesPerEntry;
+        // what a CompactRedBlackTree sized exactly for these keys would hold (object, three arrays and path stack)
+        this.compactTotalBytes = CompactRedBlackTree.bytesForCapacity(keys + 1);
+    }
+
+    // Estimate for the live tree, plus what the compact layout would cost for the same keys.
+    // getNodeCount() is a counter, so this doesn't walk (or copy) the tree.
+    public static MemoryReport forTree(RedBlackTree tree) {
+        return new MemoryReport(tree.getNodeCount());
+    }
+
+    // One Node: header + int data + boolean isRed + left/right/parent references.
+    public static long nodeBytes() {
+        return objectBytes(OBJECT_HEADER + 4 + 1 + 3 * REFERENCE);
+    }
+
+    static long intArrayBytes(int length) {
+        return objectBytes(ARRAY_HEADER + 4L * length);
+    }
+
+    // HotSpot pads every object to a multiple of 8 bytes
+    static long objectBytes(long rawBytes) {
+        return (rawBytes + 7) & ~7L;
+    }
+
+    public String toJson() {
+        double compactPerEntry = keys == 0 ? 0.0 : (double) compactTotalBytes / keys;
+        return String.format(java.util.Locale.ROOT,
+            "{\"keys\": %d, \"compressedOops\": %b, "
+            + "\"node\": {\"bytesPerEntry\": %d, \"totalBytes\": %d}, "
+            + "\"compact\": {\"bytesPerEntry\": %.2f, \"totalBytes\": %d}}",
+            keys, COMPRESSED_OOPS, nodeBytesPerEntry, nodeTotalBytes, compactPerEntry, compactTotalBytes);
+    }
+
+    private static boolean detectCompressedOops() {
+        try {
+            HotSpotDiagnosticMXBean bean = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+            return Boolean.parseBoolean(bean.getVMOption("UseCompressedOops").getValue());
+        } catch (Exception | LinkageError e) {
+            // Not HotSpot (or option missing): assume the common default for heaps under 32 GB
+            return true;
+        }
+    }
+}
@@ -2,11 +2,31 @@ package com.rbtree;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntConsumer;
 // SOURCE: https://www.geeksforgeeks.org/dsa/introduction-to-red-black-tree/
 // ALL COMMENTS ARE PASTED AND SOURCED FROM HERE ^^^^^^^^^^^^
 
 public class RedBlackTree {
     Node root;
+    // kept by insertNode/deleteNode so counting never walks the tree
+    private int size;
+
+    // Where insert/delete save the visualization JSON; null turns saving off
+    private String persistPath = "visualization/tree_data.json";
+
+    // Told about every successful insert/delete, in order, while the tree lock is held (see ReplicationLeader)
+    public interface MutationListener {
+        void onInsert(int data);
+        void onDelete(int data);
+    }
+
+    private final List<MutationListener> listeners = new CopyOnWriteArrayList<>();
+
+    // Debug mode: after every insert/delete, re-check the invariants along the paths that changed
+    private boolean debugVerify;
+    // debug mode only: the inserted node / removal point plus every node a rotation moved during the current op
+    private final List<Node> debugTouched = new ArrayList<>();
 
     // Insertion Steps
     // BST Insert: Insert the new node like in a standard BST.
@@ -14,19 +34,40 @@ public class RedBlackTree {
     // If the parent of the new node is black, no properties are violated.
     // If the parent is red, the tree might violate the Red Property, requiring fixes.
 
-    public void insert(int data) {
+    public synchronized void insert(int data) {
         Node newNode = new Node(data);
-        root = bstInsert(root, newNode);
-        fixViolations(newNode);
+        insertNode(newNode);
+        // skip the iterator when nobody listens (the common case)
+        if (!listeners.isEmpty()) {
+            for (MutationListener l : listeners) l.onInsert(data);
+        }
 
         // Update visuals after ops
-        try {
-            TreeSerializer.saveTreeToJson(root, "visualization/tree_data.json");
-        } catch (java.io.IOException e) {
-            throw new RuntimeException("Failed to save tree JSON", e);
-        }
+        persist();
+    }
+
+    // Links an already-built node into the tree and rebalances. Subclasses use this to insert their own Node types.
+    // The debug check runs here (not in insert) so subclass inserts get it too.
+    protected void insertNode(Node newNode) {
+        if (debugVerify) debugTouched.add(newNode);
+        root = bstInsert(root, newNode);
+        size++;
+        afterInsert(newNode);
+        fixViolations(newNode);
+        if (debugVerify) verifyTouched();
     }
 
+    // --- Hooks for augmented trees (see IntervalRedBlackTree). No-ops here. ---
+
+    // Called once the new node is linked in, before any rebalancing.
+    protected void afterInsert(Node newNode) {}
+
+    // Called after every rotation: pivot is now the child of newParent.
+    protected void afterRotate(Node pivot, Node newParent) {}
+
+    // Called after a node is unlinked, before recoloring: every subtree from lowest up to the root may have changed.
+    protected void afterRemove(Node lowest) {}
+
     // BST Insert: Insert the new node like in a standard BST.
     private Node bstInsert(Node root, Node newNode) {
         // SOURCE: https://www.geeksforgeeks.org/dsa/insertion-in-binary-search-tree/
@@ -144,6 +185,8 @@ public class RedBlackTree {
         // Finish rotation: pivot becomes left child of newParent
         newParent.left = pivot;               
         pivot.parent = newParent;
+        recordRotation(pivot, newParent);
+        afterRotate(pivot, newParent);
     }
 
 
@@ -171,10 +214,12 @@ public class RedBlackTree {
         // Finish rotation: pivot becomes right child of newParent
         newParent.right = pivot;              
         pivot.parent = newParent;
+        recordRotation(pivot, newParent);
+        afterRotate(pivot, newParent);
     }
 
 
-    public Node search(int key) {
+    public synchronized Node search(int key) {
         Node x = root;
         while (x != null && x != null) { // use NIL if you use a sentinel; otherwise check null
             int cmp = Integer.compare(key, x.data);
@@ -192,23 +237,70 @@ public class RedBlackTree {
 
 
 
-    public void delete(int data) {
-        Node node = search(data);
-        if (node == null) {
+    public synchronized void delete(int data) {
+        if (!deleteQuietly(data)) {
             System.out.println("Node with data " + data + " not found.");
             return;
         }
-        
-        deleteNode(node);
 
         // Update visuals after ops
+        persist();
+    }
+
+    // delete() without saving the JSON, for callers that remove a batch and call persist() once
+    // (see ExpiringRedBlackTree). Listeners are still told, so followers stay in sync.
+    // Returns false if data isn't in the tree.
+    synchronized boolean deleteQuietly(int data) {
+        Node node = search(data);
+        if (node == null) return false;
+
+        deleteNode(node);
+        // skip the iterator when nobody listens (the common case)
+        if (!listeners.isEmpty()) {
+            for (MutationListener l : listeners) l.onDelete(data);
+        }
+        return true;
+    }
+
+    // Save the visualization JSON, unless persistence is off
+    synchronized void persist() {
+        if (persistPath == null) return;
         try {
-            TreeSerializer.saveTreeToJson(root, "visualization/tree_data.json");
+            TreeSerializer.saveTreeToJson(root, persistPath);
         } catch (java.io.IOException e) {
             throw new RuntimeException("Failed to save tree JSON", e);
         }
     }
 
+    // null disables saving (followers, benchmarks, tests)
+    public synchronized void setPersistPath(String path) {
+        this.persistPath = path;
+    }
+
+    public void addMutationListener(MutationListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeMutationListener(MutationListener listener) {
+        listeners.remove(listener);
+    }
+
+    // Replace the whole contents with values (used when a follower loads a snapshot).
+    // Listeners are not told about the individual inserts.
+    public synchronized void loadSnapshot(int[] values) {
+        clearNodes();
+        for (int v : values) {
+            insertNode(new Node(v));
+        }
+        persist();
+    }
+
+    // Drops every node without telling listeners or saving (snapshot loading starts from here)
+    protected void clearNodes() {
+        root = null;
+        size = 0;
+    }
+
     // If the node to be deleted has no children, simply remove it and update the parent node.
     // If the node to be deleted has only one child, replace the node with its child.
     // If the node to be deleted has two children, then replace the node with its in-order successor, which is the leftmost node in the right subtree. Then delete the in-order successor node as if it has at most one child.
@@ -235,7 +327,8 @@ public class RedBlackTree {
     }
 
     /** CLRS-style RB-DELETE adapted for nullable children (no NIL sentinel) */
-    private void deleteNode(Node z) {
+    // Like insertNode, runs the debug check itself so subclass deletes get it too.
+    protected void deleteNode(Node z) {
         if (z == null) return;
 
         Node y = z;
@@ -273,10 +366,16 @@ public class RedBlackTree {
             y.isRed = z.isRed; // preserve original color of z
         }
 
+        // xParent is the lowest node whose subtree changed (it is y itself when y was z's child)
+        size--;
+        afterRemove(xParent);
+        if (debugVerify && xParent != null) debugTouched.add(xParent);
+
         // If a black node was removed, fix double-black property
         if (!yOriginalIsRed) {
             rbDeleteFixup(x, xParent);
         }
+        if (debugVerify) verifyTouched();
     }
 
 
@@ -366,20 +465,117 @@ public class RedBlackTree {
     // Returns a list of all node values (preorder). Synchronized to be safe with WebServer access.
     public synchronized List<Integer> getAllValues() {
         List<Integer> out = new ArrayList<>();
-        collectValues(root, out);
+        forEachValue(out::add);
+        return out;
+    }
+
+    // Calls action with every value, preorder (same order as getAllValues), without building a list.
+    // action runs under the tree lock, so it should be quick and must not wait on other threads.
+    public synchronized void forEachValue(IntConsumer action) {
+        visitPreorder(root, action);
+    }
+
+    // preorder traversal
+    private void visitPreorder(Node node, IntConsumer action) {
+        if (node == null) return;
+        action.accept(node.data);
+        visitPreorder(node.left, action);
+        visitPreorder(node.right, action);
+    }
+
+    // Sorted values in [from, to]. Only descends into subtrees that can hold values in range.
+    public synchronized List<Integer> range(int from, int to) {
+        List<Integer> out = new ArrayList<>();
+        forEachInRange(from, to, out::add);
         return out;
     }
 
-    // preorder traversal to collect values
-    private void collectValues(Node node, List<Integer> out) {
+    // range() without the list: action gets each value in [from, to], in order, under the tree lock.
+    public synchronized void forEachInRange(int from, int to, IntConsumer action) {
+        visitRange(root, from, to, action);
+    }
+
+    // in-order traversal, pruned to [from, to]
+    private void visitRange(Node node, int from, int to, IntConsumer action) {
         if (node == null) return;
-        out.add(node.data);
-        collectValues(node.left, out);
-        collectValues(node.right, out);
+        if (node.data >= from) visitRange(node.left, from, to, action);
+        if (node.data >= from && node.data <= to) action.accept(node.data);
+        if (node.data <= to) visitRange(node.right, from, to, action);
+    }
+
+    // JSON of the current tree, built under the lock so it never sees a half-done rotation
+    public synchronized String toJson() {
+        return TreeSerializer.toJson(root);
+    }
+
+    // Height, black-height, depth histogram, red ratio and average search path, plus an invariant check.
+    // One iterative O(n) pass under the lock; cheap enough to sample every few seconds.
+    public synchronized TreeProfile profile() {
+        return TreeProfile.of(root);
+    }
+
+    // Full invariant check. Throws IllegalStateException describing the first violation found.
+    public synchronized void verify() {
+        TreeProfile p = profile();
+        if (!p.isValid()) throw new IllegalStateException(p.getViolation());
+    }
+
+    // When on, every insert/delete checks the nodes from the change up to the root, and from every node a
+    // rotation moved (at most 3 rotations, O(log^2 n) each), so a corrupting operation fails right away
+    // instead of being found by the next full verify().
+    public synchronized void setDebugVerify(boolean on) {
+        this.debugVerify = on;
+        debugTouched.clear();
+    }
+
+    // Rotations move nodes off the inserted node's path (the old grandparent, the delete sibling, ...),
+    // and those are exactly the ones that got relinked and recolored, so verify from them too.
+    private void recordRotation(Node pivot, Node newParent) {
+        if (!debugVerify) return;
+        debugTouched.add(pivot);
+        debugTouched.add(newParent);
+    }
+
+    private void verifyTouched() {
+        try {
+            if (root != null && root.isRed) throw new IllegalStateException("Root is RED");
+            for (Node n : debugTouched) verifyPath(n);
+        } finally {
+            debugTouched.clear();
+        }
+    }
+
+    // Walks from node up to the root checking links, red-red and that both children see the same black height.
+    private void verifyPath(Node node) {
+        for (Node n = node; n != null; n = n.parent) {
+            if (n.parent == null && n != root) throw new IllegalStateException("Node " + n.data + " is detached from the tree");
+            if (n.left != null && (n.left.parent != n || n.left.data > n.data)) {
+                throw new IllegalStateException("Bad left link at node " + n.data);
+            }
+            if (n.right != null && (n.right.parent != n || n.right.data < n.data)) {
+                throw new IllegalStateException("Bad right link at node " + n.data);
+            }
+            if (n.isRed && ((n.left != null && n.left.isRed) || (n.right != null && n.right.isRed))) {
+                throw new IllegalStateException("Red node " + n.data + " has a RED child");
+            }
+            // if the subtrees are valid, any one path down each side gives its black height
+            if (spineBlackHeight(n.left) != spineBlackHeight(n.right)) {
+                throw new IllegalStateException("Black height mismatch at node " + n.data);
+            }
+        }
+    }
+
+    // black nodes down the leftmost path of the subtree
+    private static int spineBlackHeight(Node n) {
+        int blacks = 0;
+        for (; n != null; n = n.left) {
+            if (!n.isRed) blacks++;
+        }
+        return blacks;
     }
 
     // Returns the number of nodes in the tree
     public synchronized int getNodeCount() {
-        return getAllValues().size();
+        return size;
     }
 }
\ No newline at end of file
@@ -0,0 +1,109 @@
+package com.rbtree;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+// Keeps a local tree in sync with a ReplicationLeader, for serving reads from another process.
+// On every (re)connect it loads the leader's snapshot, then applies the mutation stream in order.
+// If the connection drops or a gap in seq shows up, it reconnects and starts over from a new snapshot.
+public class ReplicationFollower {
+
+    private static final long RECONNECT_MILLIS = 1000;
+    // leader heartbeats every second; three missed ones means it's gone
+    private static final int READ_TIMEOUT_MILLIS = 3000;
+
+    private final RedBlackTree tree;
+    private final String host;
+    private final int port;
+
+    private volatile boolean running;
+    private volatile long appliedSeq = -1;
+    private volatile Socket socket;
+
+    public ReplicationFollower(RedBlackTree tree, String host, int port) {
+        this.tree = tree;
+        this.host = host;
+        this.port = port;
+    }
+
+    public void start() {
+        running = true;
+        Thread t = new Thread(this::run, "replication-follower");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    public void stop() {
+        running = false;
+        Socket s = socket;
+        if (s != null) {
+            try {
+                s.close();
+            } catch (IOException ignored) {}
+        }
+    }
+
+    // seq of the last mutation applied locally, -1 before the first snapshot
+    public long getAppliedSeq() {
+        return appliedSeq;
+    }
+
+    private void run() {
+        while (running) {
+            try (Socket s = new Socket()) {
+                socket = s;
+                s.connect(new InetSocketAddress(host, port), READ_TIMEOUT_MILLIS);
+                s.setSoTimeout(READ_TIMEOUT_MILLIS);
+                follow(new DataInputStream(new BufferedInputStream(s.getInputStream())));
+            } catch (EOFException e) {
+                if (running) System.err.println("Replication leader closed the connection, reconnecting");
+            } catch (IOException e) {
+                if (running) System.err.println("Replication connection failed: " + e.getMessage());
+            }
+
+            if (!running) break;
+            try {
+                Thread.sleep(RECONNECT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void follow(DataInputStream in) throws IOException {
+        if (in.readByte() != ReplicationLeader.SNAPSHOT) {
+            throw new IOException("Expected snapshot from leader");
+        }
+        long seq = in.readLong();
+        int count = in.readInt();
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) values[i] = in.readInt();
+        tree.loadSnapshot(values);
+        appliedSeq = seq;
+        System.out.println("Replication: loaded snapshot of " + count + " keys at seq " + seq);
+
+        while (running) {
+            byte op = in.readByte();
+            long opSeq = in.readLong();
+            if (op == ReplicationLeader.HEARTBEAT) continue;
+
+            int key = in.readInt();
+            if (opSeq != appliedSeq + 1) {
+                throw new IOException("Replication gap: expected seq " + (appliedSeq + 1) + " but got " + opSeq);
+            }
+            if (op == ReplicationLeader.INSERT) {
+                tree.insert(key);
+            } else if (op == ReplicationLeader.DELETE) {
+                tree.delete(key);
+            } else {
+                throw new IOException("Unknown replication op: " + op);
+            }
+            appliedSeq = opSeq;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.rbtree;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+// Ships every insert/delete on the leader's tree to connected followers (see ReplicationFollower).
+//
+// Wire format (DataOutputStream, big-endian):
+//   snapshot:  'S' long seq, int count, count x int   -- sent once per connection
+//   mutation:  'I' or 'D', long seq, int key          -- in the order the tree applied them
+//   heartbeat: 'H' long seq                            -- when idle, so followers notice a dead leader
+// seq increases by one per mutation; the snapshot carries the seq it is current as of.
+//
+// Each follower gets its own bounded queue. A follower that falls too far behind is dropped;
+// it reconnects and catches up from a fresh snapshot instead of slowing the leader down.
+public class ReplicationLeader implements RedBlackTree.MutationListener {
+
+    static final byte SNAPSHOT = 'S';
+    static final byte INSERT = 'I';
+    static final byte DELETE = 'D';
+    static final byte HEARTBEAT = 'H';
+
+    private static final int QUEUE_CAPACITY = 1 << 16;
+    private static final long HEARTBEAT_MILLIS = 1000;
+
+    private final RedBlackTree tree;
+    private final int port;
+    private final List<FollowerLink> followers = new CopyOnWriteArrayList<>();
+
+    // only touched while holding the tree lock (listener callbacks and snapshots)
+    private long seq;
+
+    private ServerSocket serverSocket;
+    private volatile boolean running;
+
+    public ReplicationLeader(RedBlackTree tree, int port) {
+        this.tree = tree;
+        this.port = port;
+    }
+
+    public void start() throws IOException {
+        serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(port));
+        running = true;
+        tree.addMutationListener(this);
+
+        Thread acceptor = new Thread(this::acceptLoop, "replication-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        System.out.println("Replication leader listening on port " + getPort());
+    }
+
+    public void stop() {
+        running = false;
+        tree.removeMutationListener(this);
+        try {
+            if (serverSocket != null) serverSocket.close();
+        } catch (IOException ignored) {}
+        for (FollowerLink f : followers) f.close();
+    }
+
+    // Actual bound port (useful when constructed with port 0)
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int getFollowerCount() {
+        return followers.size();
+    }
+
+    // --- MutationListener: called under the tree lock, so must never block ---
+
+    @Override
+    public void onInsert(int data) {
+        publish(INSERT, data);
+    }
+
+    @Override
+    public void onDelete(int data) {
+        publish(DELETE, data);
+    }
+
+    private void publish(byte op, int key) {
+        long s = ++seq;
+        for (FollowerLink f : followers) {
+            if (!f.queue.offer(new long[] {op, s, key})) {
+                System.err.println("Replication follower " + f.name + " fell behind, dropping it");
+                f.close();
+            }
+        }
+    }
+
+    // --- connection handling ---
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                FollowerLink link = new FollowerLink(socket);
+
+                // Snapshot and registration happen under the tree lock,
+                // so the follower sees exactly the mutations after the snapshot.
+                int[] snapshot;
+                long snapshotSeq;
+                synchronized (tree) {
+                    List<Integer> values = tree.getAllValues();
+                    snapshot = new int[values.size()];
+                    for (int i = 0; i < snapshot.length; i++) snapshot[i] = values.get(i);
+                    snapshotSeq = seq;
+                    followers.add(link);
+                }
+
+                Thread sender = new Thread(() -> link.run(snapshot, snapshotSeq), "replication-" + link.name);
+                sender.setDaemon(true);
+                sender.start();
+            } catch (IOException e) {
+                if (running) System.err.println("Replication accept failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private class FollowerLink {
+        final Socket socket;
+        final String name;
+        final BlockingQueue<long[]> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+        FollowerLink(Socket socket) {
+            this.socket = socket;
+            this.name = String.valueOf(socket.getRemoteSocketAddress());
+        }
+
+        void run(int[] snapshot, long snapshotSeq) {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+                out.writeByte(SNAPSHOT);
+                out.writeLong(snapshotSeq);
+                out.writeInt(snapshot.length);
+                for (int v : snapshot) out.writeInt(v);
+                out.flush();
+
+                long lastSeq = snapshotSeq;
+                while (running && !socket.isClosed()) {
+                    long[] op = queue.poll(HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS);
+                    if (op == null) {
+                        out.writeByte(HEARTBEAT);
+                        out.writeLong(lastSeq);
+                        out.flush();
+                        continue;
+                    }
+                    // write everything already queued before flushing
+                    do {
+                        out.writeByte((int) op[0]);
+                        out.writeLong(op[1]);
+                        out.writeInt((int) op[2]);
+                        lastSeq = op[1];
+                    } while ((op = queue.poll()) != null);
+                    out.flush();
+                }
+            } catch (IOException e) {
+                // follower went away; it will reconnect and take a new snapshot
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                close();
+            }
+        }
+
+        void close() {
+            followers.remove(this);
+            try {
+                socket.close();
+            } catch (IOException ignored) {}
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.rbtree;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
+
+// In-memory cache for the visualization files served by WebServer.StaticHandler.
+// Each small file is read once and kept as raw bytes, a gzip copy (when that's actually smaller) and an ETag.
+// A cheap size + mtime check per request picks up edits (tree_data.json changes on every insert).
+// Files above MAX_CACHED_BYTES aren't cached at all; the handler streams those straight from disk.
+public class StaticAssetCache {
+
+    static final long MAX_CACHED_BYTES = 256 * 1024;
+
+    private final Path root;
+    private final Map<String, Asset> assets = new ConcurrentHashMap<>();
+
+    public StaticAssetCache(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+    }
+
+    // Resolves a URL path inside root. Returns null for anything that escapes it (../) or doesn't exist.
+    public Path resolve(String urlPath) {
+        Path file = root.resolve(urlPath.startsWith("/") ? urlPath.substring(1) : urlPath).normalize();
+        if (!file.startsWith(root) || !Files.isRegularFile(file)) return null;
+        return file;
+    }
+
+    // Cached asset for file, (re)loaded if it changed on disk. Null if it's too big to cache.
+    public Asset get(Path file) throws IOException {
+        BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        if (attrs.size() > MAX_CACHED_BYTES) return null;
+
+        long modified = attrs.lastModifiedTime().toMillis();
+        String key = file.toString();
+        Asset cached = assets.get(key);
+        if (cached != null && cached.modified == modified && cached.body.length == attrs.size()) {
+            return cached;
+        }
+        Asset fresh = new Asset(Files.readAllBytes(file), modified, contentType(file));
+        assets.put(key, fresh);
+        return fresh;
+    }
+
+    static String contentType(Path file) {
+        String name = file.getFileName().toString();
+        if (name.endsWith(".html")) return "text/html; charset=utf-8";
+        if (name.endsWith(".js")) return "text/javascript; charset=utf-8";
+        if (name.endsWith(".css")) return "text/css; charset=utf-8";
+        if (name.endsWith(".json")) return "application/json; charset=utf-8";
+        if (name.endsWith(".png")) return "image/png";
+        if (name.endsWith(".svg")) return "image/svg+xml";
+        if (name.endsWith(".ico")) return "image/x-icon";
+        return "application/octet-stream";
+    }
+
+    // Pages and data must be revalidated (cheap thanks to the ETag); scripts/styles/images can be reused for a bit.
+    static String cacheControl(String contentType) {
+        if (contentType.startsWith("text/html") || contentType.startsWith("application/json")) {
+            return "no-cache";
+        }
+        return "public, max-age=300";
+    }
+
+    public static final class Asset {
+        final byte[] body;
+        final byte[] gzipped;   // null when compressing didn't help
+        final String etag;
+        final String gzipEtag;  // the gzip body is a different representation, so it gets its own tag
+        final String contentType;
+        final long modified;
+
+        Asset(byte[] body, long modified, String contentType) throws IOException {
+            this.body = body;
+            this.modified = modified;
+            this.contentType = contentType;
+            this.gzipped = isCompressible(contentType) ? gzip(body) : null;
+
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            String tag = Long.toHexString(crc.getValue()) + "-" + Integer.toHexString(body.length);
+            this.etag = "\"" + tag + "\"";
+            this.gzipEtag = "\"" + tag + "-gz\"";
+        }
+
+        private static boolean isCompressible(String contentType) {
+            return contentType.startsWith("text/") || contentType.startsWith("application/json")
+                || contentType.startsWith("image/svg");
+        }
+
+        private static byte[] gzip(byte[] body) throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 2 + 64);
+            try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+                gz.write(body);
+            }
+            byte[] compressed = out.toByteArray();
+            return compressed.length < body.length ? compressed : null;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.rbtree;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+// Shape statistics + red-black invariant check for a tree, gathered in one iterative walk.
+// Same five properties RedBlackTreePropertiesTest checks, plus BST order and parent links,
+// without recursion so it's safe to run on big trees in production.
+// Cost is O(n) with a few small arrays; RedBlackTree.profile() runs it under the tree lock.
+public class TreeProfile {
+
+    private int nodes;
+    private int redNodes;
+    private int height;          // nodes on the longest root-to-leaf path
+    private int blackHeight;     // black nodes on every root-to-NIL path (NIL itself not counted)
+    private long depthSum;       // sum of (depth + 1) = nodes compared by a successful search
+    private int[] depthHistogram = new int[16];   // depthHistogram[d] = nodes at depth d (root = 0)
+    private String violation;    // first invariant broken, or null
+
+    private TreeProfile() {}
+
+    static TreeProfile of(Node root) {
+        TreeProfile p = new TreeProfile();
+        p.walk(root);
+        return p;
+    }
+
+    // Preorder walk with explicit stacks. Each entry carries the node's depth, the black count above it,
+    // and the key bounds the BST order allows for it.
+    private void walk(Node root) {
+        if (root == null) {
+            depthHistogram = new int[0];
+            return;
+        }
+        if (root.isRed) fail("Root is RED");
+        if (root.parent != null) fail("Root has a parent");
+
+        int cap = 64;
+        Node[] stack = new Node[cap];
+        int[] depthStack = new int[cap];
+        int[] blackStack = new int[cap];
+        long[] loStack = new long[cap];
+        long[] hiStack = new long[cap];
+        int leafBlackHeight = -1;
+
+        stack[0] = root;
+        loStack[0] = Long.MIN_VALUE;
+        hiStack[0] = Long.MAX_VALUE;
+        int top = 1;
+
+        while (top > 0) {
+            top--;
+            Node node = stack[top];
+            int depth = depthStack[top];
+            int blacks = blackStack[top] + (node.isRed ? 0 : 1);
+            long lo = loStack[top];
+            long hi = hiStack[top];
+
+            // --- statistics ---
+            nodes++;
+            if (node.isRed) redNodes++;
+            depthSum += depth + 1;
+            height = Math.max(height, depth + 1);
+            if (depth >= depthHistogram.length) {
+                depthHistogram = Arrays.copyOf(depthHistogram, Math.max(depth + 1, depthHistogram.length * 2));
+            }
+            depthHistogram[depth]++;
+
+            // --- invariants ---
+            // duplicates may end up on either side after rotations, so bounds are inclusive
+            if (node.data < lo || node.data > hi) fail("BST order broken at node " + node.data);
+            if (node.isRed && ((node.left != null && node.left.isRed) || (node.right != null && node.right.isRed))) {
+                fail("Red node " + node.data + " has a RED child");
+            }
+            if (node.left == null || node.right == null) {
+                // a NIL child: every NIL must sit under the same number of black nodes
+                if (leafBlackHeight < 0) {
+                    leafBlackHeight = blacks;
+                } else if (blacks != leafBlackHeight) {
+                    fail("Black height mismatch below node " + node.data + ": " + blacks + " vs " + leafBlackHeight);
+                }
+            }
+
+            // --- children ---
+            if (top + 2 > stack.length) {
+                cap = stack.length * 2;
+                stack = Arrays.copyOf(stack, cap);
+                depthStack = Arrays.copyOf(depthStack, cap);
+                blackStack = Arrays.copyOf(blackStack, cap);
+                loStack = Arrays.copyOf(loStack, cap);
+                hiStack = Arrays.copyOf(hiStack, cap);
+            }
+            if (node.right != null) {
+                if (node.right.parent != node) fail("Right child of " + node.data + " has the wrong parent");
+                stack[top] = node.right;
+                depthStack[top] = depth + 1;
+                blackStack[top] = blacks;
+                loStack[top] = node.data;
+                hiStack[top] = hi;
+                top++;
+            }
+            if (node.left != null) {
+                if (node.left.parent != node) fail("Left child of " + node.data + " has the wrong parent");
+                stack[top] = node.left;
+                depthStack[top] = depth + 1;
+                blackStack[top] = blacks;
+                loStack[top] = lo;
+                hiStack[top] = node.data;
+                top++;
+            }
+        }
+        blackHeight = Math.max(leafBlackHeight, 0);
+        depthHistogram = Arrays.copyOf(depthHistogram, height);
+    }
+
+    private void fail(String message) {
+        if (violation == null) violation = message;
+    }
+
+    public boolean isValid() {
+        return violation == null;
+    }
+
+    public String getViolation() {
+        return violation;
+    }
+
+    public int getNodeCount() {
+        return nodes;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getBlackHeight() {
+        return blackHeight;
+    }
+
+    public double getRedRatio() {
+        return nodes == 0 ? 0.0 : (double) redNodes / nodes;
+    }
+
+    // Average nodes compared by a successful search (depth + 1, averaged over all keys)
+    public double getAverageSearchPathLength() {
+        return nodes == 0 ? 0.0 : (double) depthSum / nodes;
+    }
+
+    public int[] getDepthHistogram() {
+        return depthHistogram.clone();
+    }
+
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{");
+        json.append(String.format(Locale.ROOT,
+            "\"nodes\": %d, \"height\": %d, \"blackHeight\": %d, \"redRatio\": %.4f, \"avgSearchPath\": %.3f, ",
+            nodes, height, blackHeight, getRedRatio(), getAverageSearchPathLength()));
+        json.append("\"depthHistogram\": [");
+        for (int i = 0; i < depthHistogram.length; i++) {
+            if (i > 0) json.append(",");
+            json.append(depthHistogram[i]);
+        }
+        json.append("], \"valid\": ").append(isValid());
+        json.append(", \"violation\": ");
+        json.append(violation == null ? "null" : "\"" + violation.replace("\"", "'") + "\"");
+        json.append("}");
+        return json.toString();
+    }
+}
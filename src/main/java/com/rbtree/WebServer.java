@@ -3,25 +3,65 @@ package com.rbtree;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
-import java.util.Random;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
+import com.sun.net.httpserver.Headers;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
 
 public class WebServer {
     private final RedBlackTree tree;
+    // insert/delete go through this so keys inserted with ?ttl= expire on their own
+    private final ExpiringRedBlackTree expiring;
     private final int port;
+    // followers only serve reads; their tree is written by ReplicationFollower
+    private final boolean readOnly;
+    // visualization/* held in memory (with gzip copies) instead of read from disk per request
+    private final StaticAssetCache assets;
+    private HttpServer server;
+
+    // Scratch buffers for big JSON arrays (/nodes, /range), reused across requests and threads.
+    // At most SCRATCH_POOL buffers of up to MAX_KEPT_SCRATCH each are kept per server; extra concurrent
+    // requests get a fresh buffer, and anything that grew past the limit is dropped after use.
+    private static final int SCRATCH_POOL = 4;
+    private static final int MAX_KEPT_SCRATCH = 1 << 20;
+    private final ArrayBlockingQueue<byte[]> scratch = new ArrayBlockingQueue<>(SCRATCH_POOL);
 
     public WebServer(RedBlackTree tree, int port) {
+        this(tree, port, false);
+    }
+
+    public WebServer(RedBlackTree tree, int port, boolean readOnly) {
+        this(tree, port, readOnly, Path.of("visualization"));
+    }
+
+    // staticRoot is where "/" and the other static files are served from (tests point it at a temp dir)
+    WebServer(RedBlackTree tree, int port, boolean readOnly, Path staticRoot) {
         this.tree = tree;
+        this.expiring = new ExpiringRedBlackTree(tree);
         this.port = port;
+        this.readOnly = readOnly;
+        this.assets = new StaticAssetCache(staticRoot);
     }
 
+    // TCP_NODELAY comes from the sun.net.httpserver.nodelay property, which Main sets before calling this
     public void start() throws IOException {
-        // Start the server on port 8080
-        HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+        // Start the server on the given port (0 picks a free one, see getPort())
+        server = HttpServer.create(new InetSocketAddress(port), 0);
         
         // These are the pages/endpoints the browser can talk to
         server.createContext("/", new StaticHandler());
@@ -30,19 +70,37 @@ public class WebServer {
         server.createContext("/search", new SearchHandler());
         server.createContext("/tree.json", new TreeHandler());
         server.createContext("/nodes", new NodesHandler()); // Needed for "Delete All" button
+        server.createContext("/range", new RangeHandler());
+        server.createContext("/memory", new MemoryHandler());
+        server.createContext("/profile", new ProfileHandler());
+        server.createContext("/verify", new VerifyHandler());
         
         // This is the new one for the graph
         server.createContext("/benchmark", new BenchmarkHandler());
 
         server.setExecutor(Executors.newCachedThreadPool());
         server.start();
-        System.out.println("Server is up! Go to http://localhost:" + port + "/");
+        // Sweep expired keys in small batches even when no requests are coming in
+        if (!readOnly) expiring.startBackgroundEviction(1000, 64);
+        System.out.println("Server is up! Go to http://localhost:" + getPort() + "/");
+    }
+
+    // The port actually bound (differs from the constructor's when that was 0)
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public void stop() {
+        expiring.stopBackgroundEviction();
+        server.stop(0);
+        ((ExecutorService) server.getExecutor()).shutdown();
     }
 
     // --- HANDLERS ---
 
     // This handles the performance test.
-    // It runs the operations on a fresh tree and times them.
+    // It runs the operations on fresh trees (JSON saving off) and times every single op, see Benchmark.
+    // /benchmark?n=100000&type=zipf&seed=42&warmup=2&trials=5
     class BenchmarkHandler implements HttpHandler {
         @Override
         public void handle(HttpExchange exchange) throws IOException {
@@ -50,162 +108,301 @@ public class WebServer {
                 sendText(exchange, 405, "Method Not Allowed");
                 return;
             }
-            
-            // Get the parameters from the URL (like ?n=1000&type=random)
-            String query = exchange.getRequestURI().getQuery();
-            int n = 1000; 
-            String type = "random"; 
-            
-            if (query != null) {
-                for (String part : query.split("&")) {
-                    String[] kv = part.split("=");
-                    if (kv[0].equals("n")) n = Integer.parseInt(kv[1]);
-                    if (kv[0].equals("type")) type = kv[1];
-                }
-            }
 
-            // 1. Generate the test data
-            int[] data = generateInput(n, type);
-            
-            // 2. Measure Insertion Time
-            // We use a new tree so previous tests don't mess up the timing
-            RedBlackTree benchTree = new RedBlackTree(); 
-            long startInsert = System.nanoTime();
-            for (int x : data) {
-                benchTree.insert(x);
-            }
-            long endInsert = System.nanoTime();
-            
-            // Convert to milliseconds
-            double insertMs = (endInsert - startInsert) / 1_000_000.0;
-
-            // 3. Measure Search Time (Look for every item we just added)
-            long startSearch = System.nanoTime();
-            for (int x : data) {
-                benchTree.search(x);
-            }
-            long endSearch = System.nanoTime();
-            double searchMs = (endSearch - startSearch) / 1_000_000.0;
-
-            // 4. Measure Delete Time (Remove everything)
-            long startDelete = System.nanoTime();
-            for (int x : data) {
-                benchTree.delete(x);
+            // Get the parameters from the URL (like ?n=1000&type=random)
+            Map<String, String> params = parseQuery(exchange.getRequestURI().getQuery());
+            Benchmark result;
+            try {
+                int n = Integer.parseInt(params.getOrDefault("n", "1000"));
+                String type = params.getOrDefault("type", "random");
+                long seed = Long.parseLong(params.getOrDefault("seed", "42"));
+                int warmup = Integer.parseInt(params.getOrDefault("warmup", "2"));
+                int trials = Integer.parseInt(params.getOrDefault("trials", "5"));
+                result = Benchmark.run(n, type, seed, warmup, trials);
+            } catch (IllegalArgumentException e) {
+                sendJson(exchange, 400, "{\"error\": \"" + e.getMessage().replace("\"", "'") + "\"}");
+                return;
             }
-            long endDelete = System.nanoTime();
-            double deleteMs = (endDelete - startDelete) / 1_000_000.0;
 
             // Send the results back to the browser as JSON
-            String json = String.format(
-                "{\"insert\": %.4f, \"search\": %.4f, \"delete\": %.4f}",
-                insertMs, searchMs, deleteMs
-            );
-            sendJson(exchange, 200, json);
-        }
-
-        // Helper to make an array of numbers
-        private int[] generateInput(int n, String type) {
-            int[] arr = new int[n];
-            if (type.equals("sorted")) {
-                // Worst case for BST: 0, 1, 2, 3...
-                for (int i = 0; i < n; i++) arr[i] = i;
-            } else if (type.equals("reverse")) {
-                // Also bad for BST: 10, 9, 8...
-                for (int i = 0; i < n; i++) arr[i] = n - i;
-            } else { 
-                // Random (Average case)
-                Random rand = new Random();
-                for (int i = 0; i < n; i++) arr[i] = rand.nextInt(n * 10);
-            }
-            return arr;
+            sendJson(exchange, 200, result.toJson());
         }
     }
 
     // Standard handlers for the visualizer buttons
     class InsertHandler implements HttpHandler {
         public void handle(HttpExchange t) throws IOException {
-            String q = t.getRequestURI().getQuery();
-            int val = Integer.parseInt(q.split("=")[1]);
-            tree.insert(val);
-            // Save to file so the frontend can draw it
-            TreeSerializer.saveTreeToJson(tree.root, "visualization/tree_data.json");
+            if (rejectIfReadOnly(t)) return;
+            // /insert?value=5 or /insert?value=5&ttl=30000 (expires after 30s)
+            Map<String, String> params = parseQuery(t.getRequestURI().getQuery());
+            int val = Integer.parseInt(params.get("value"));
+            String ttl = params.get("ttl");
+            try {
+                if (ttl != null) {
+                    expiring.insert(val, Long.parseLong(ttl));
+                } else {
+                    expiring.insert(val);
+                }
+            } catch (IllegalArgumentException e) {
+                // bad ttl, or mixing a permanent and an expiring copy of the same key
+                sendJson(t, 400, "{\"error\": \"" + e.getMessage().replace("\"", "'") + "\"}");
+                return;
+            }
+            // no save here: the tree writes the visualization JSON itself (see RedBlackTree.setPersistPath)
             sendJson(t, 200, "{\"status\": \"ok\"}");
         }
     }
 
     class DeleteHandler implements HttpHandler {
         public void handle(HttpExchange t) throws IOException {
-            String q = t.getRequestURI().getQuery();
-            int val = Integer.parseInt(q.split("=")[1]);
-            tree.delete(val);
-            TreeSerializer.saveTreeToJson(tree.root, "visualization/tree_data.json");
+            if (rejectIfReadOnly(t)) return;
+            int val = Integer.parseInt(parseQuery(t.getRequestURI().getQuery()).get("value"));
+            expiring.delete(val);
             sendJson(t, 200, "{\"status\": \"ok\"}");
         }
     }
 
     class SearchHandler implements HttpHandler {
         public void handle(HttpExchange t) throws IOException {
-            String q = t.getRequestURI().getQuery();
-            int val = Integer.parseInt(q.split("=")[1]);
-            boolean found = (tree.search(val) != null);
+            int val = Integer.parseInt(parseQuery(t.getRequestURI().getQuery()).get("value"));
+            // keys past their TTL count as gone even if the evictor hasn't removed them yet
+            boolean found = expiring.contains(val);
             sendJson(t, 200, "{\"found\": " + found + "}");
         }
     }
 
     class TreeHandler implements HttpHandler {
         public void handle(HttpExchange t) throws IOException {
-            String json = "null";
-            // Just read the file we saved earlier
-            try {
-                java.nio.file.Path path = java.nio.file.Paths.get("visualization/tree_data.json");
-                if (java.nio.file.Files.exists(path)) {
-                    json = java.nio.file.Files.readString(path);
-                }
-            } catch (Exception e) { e.printStackTrace(); }
-            sendJson(t, 200, json);
+            // Serialize the live tree rather than the saved file, so followers (which don't save) work too
+            sendJson(t, 200, tree.toJson());
         }
     }
     
     class NodesHandler implements HttpHandler {
         public void handle(HttpExchange t) throws IOException {
              // Return a list of all nodes (for the Delete All button)
-             java.util.List<Integer> nodes = tree.getAllValues();
-             StringBuilder json = new StringBuilder("[");
-             for (int i = 0; i < nodes.size(); i++) {
-                 if (i > 0) json.append(",");
-                 json.append(nodes.get(i));
-             }
-             json.append("]");
-             sendJson(t, 200, json.toString());
+             sendIntArray(t, out -> tree.forEachValue(out));
         }
     }
 
+    class RangeHandler implements HttpHandler {
+        public void handle(HttpExchange t) throws IOException {
+            // /range?from=10&to=20 -> sorted values in [10, 20]
+            Map<String, String> params = parseQuery(t.getRequestURI().getQuery());
+            int from = Integer.parseInt(params.getOrDefault("from", String.valueOf(Integer.MIN_VALUE)));
+            int to = Integer.parseInt(params.getOrDefault("to", String.valueOf(Integer.MAX_VALUE)));
+            sendIntArray(t, out -> tree.forEachInRange(from, to, out));
+        }
+    }
+
+    class ProfileHandler implements HttpHandler {
+        public void handle(HttpExchange t) throws IOException {
+            // Tree shape (height, black-height, depth histogram, ...) for correlating with latency
+            sendJson(t, 200, tree.profile().toJson());
+        }
+    }
+
+    class VerifyHandler implements HttpHandler {
+        public void handle(HttpExchange t) throws IOException {
+            // /verify -> full invariant check; /verify?debug=on|off toggles per-operation path checks
+            String debug = parseQuery(t.getRequestURI().getQuery()).get("debug");
+            if (debug != null) tree.setDebugVerify(debug.equals("on"));
+            TreeProfile p = tree.profile();
+            String violation = p.isValid() ? "null" : "\"" + p.getViolation().replace("\"", "'") + "\"";
+            sendJson(t, 200, "{\"valid\": " + p.isValid() + ", \"violation\": " + violation + "}");
+        }
+    }
+
+    class MemoryHandler implements HttpHandler {
+        public void handle(HttpExchange t) throws IOException {
+            // Estimated bytes per key for the current Node layout vs. CompactRedBlackTree
+            sendJson(t, 200, MemoryReport.forTree(tree).toJson());
+        }
+    }
+
+    // Serves visualization/* from StaticAssetCache:
+    //   - ETag + If-None-Match -> 304 with no body
+    //   - gzip body when the browser accepts it
+    //   - files too big to cache are streamed from disk through FileChannel.transferTo
     class StaticHandler implements HttpHandler {
         public void handle(HttpExchange t) throws IOException {
             String path = t.getRequestURI().getPath();
             if (path.equals("/")) path = "/index.html";
-            java.io.File file = new java.io.File("visualization" + path);
-            if (file.exists()) {
-                t.sendResponseHeaders(200, file.length());
-                OutputStream os = t.getResponseBody();
-                java.nio.file.Files.copy(file.toPath(), os);
-                os.close();
-            } else {
+            Path file = assets.resolve(path);
+            if (file == null) {
                 sendText(t, 404, "File not found");
+                return;
             }
+            boolean head = "HEAD".equalsIgnoreCase(t.getRequestMethod());
+
+            StaticAssetCache.Asset asset = assets.get(file);
+            if (asset == null) {
+                streamFile(t, file, head);
+                return;
+            }
+
+            Headers requestHeaders = t.getRequestHeaders();
+            String acceptEncoding = requestHeaders.getFirst("Accept-Encoding");
+            boolean gzip = asset.gzipped != null && acceptEncoding != null && acceptEncoding.contains("gzip");
+            byte[] body = gzip ? asset.gzipped : asset.body;
+            String etag = gzip ? asset.gzipEtag : asset.etag;
+
+            Headers h = t.getResponseHeaders();
+            h.set("Content-Type", asset.contentType);
+            h.set("Cache-Control", StaticAssetCache.cacheControl(asset.contentType));
+            h.set("ETag", etag);
+            h.set("Vary", "Accept-Encoding");
+
+            String ifNoneMatch = requestHeaders.getFirst("If-None-Match");
+            if (ifNoneMatch != null && (ifNoneMatch.contains(etag) || ifNoneMatch.trim().equals("*"))) {
+                t.sendResponseHeaders(304, -1);
+                t.close();
+                return;
+            }
+            if (gzip) h.set("Content-Encoding", "gzip");
+            if (head) {
+                t.sendResponseHeaders(200, -1);
+                t.close();
+                return;
+            }
+            sendBytes(t, 200, body, body.length);
         }
+
+        private void streamFile(HttpExchange t, Path file, boolean head) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = channel.size();
+                t.getResponseHeaders().set("Content-Type", StaticAssetCache.contentType(file));
+                if (head || size == 0) {
+                    t.sendResponseHeaders(200, -1);
+                    t.close();
+                    return;
+                }
+                t.sendResponseHeaders(200, size);
+                // HttpExchange only hands out a stream, so this is transferTo into a channel over it:
+                // no heap byte[] on our side, the JDK moves the bytes through its own direct buffer.
+                try (OutputStream os = t.getResponseBody()) {
+                    WritableByteChannel out = Channels.newChannel(os);
+                    long pos = 0;
+                    while (pos < size) {
+                        long sent = channel.transferTo(pos, size - pos, out);
+                        if (sent <= 0) break; // file shrank underneath us
+                        pos += sent;
+                    }
+                }
+            }
+        }
+    }
+
+    // Followers refuse writes; they'd be overwritten by the leader's stream anyway
+    private boolean rejectIfReadOnly(HttpExchange t) throws IOException {
+        if (!readOnly) return false;
+        sendJson(t, 403, "{\"error\": \"read-only follower\"}");
+        return true;
     }
 
-    // Helpers to send data back easily
+    // Splits "a=1&b=2" into a map. Missing query gives an empty map.
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> params = new HashMap<>();
+        if (query == null) return params;
+        for (String part : query.split("&")) {
+            String[] kv = part.split("=", 2);
+            params.put(kv[0], kv.length > 1 ? kv[1] : "");
+        }
+        return params;
+    }
+
+    // Helpers to send data back easily (always UTF-8, whatever the platform default is)
     private void sendText(HttpExchange t, int code, String body) throws IOException {
-        byte[] bytes = body.getBytes();
-        t.sendResponseHeaders(code, bytes.length);
-        try (OutputStream os = t.getResponseBody()) { os.write(bytes); }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        t.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        sendBytes(t, code, bytes, bytes.length);
     }
     private void sendJson(HttpExchange t, int code, String json) throws IOException {
-        byte[] bytes = json.getBytes();
-        t.getResponseHeaders().set("Content-Type", "application/json");
-        t.sendResponseHeaders(code, bytes.length);
-        try (OutputStream os = t.getResponseBody()) { os.write(bytes); }
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        t.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        sendBytes(t, code, bytes, bytes.length);
+    }
+
+    // "[1,2,3]" written straight from the tree walk into a pooled scratch buffer:
+    // no List<Integer>, StringBuilder, String or fresh byte[] (unless the pool is empty or the buffer grows).
+    // The walk only fills memory while the tree is locked; the socket write happens after.
+    private void sendIntArray(HttpExchange t, Consumer<IntConsumer> walk) throws IOException {
+        byte[] pooled = scratch.poll();
+        IntArrayWriter out = new IntArrayWriter(pooled != null ? pooled : new byte[8192]);
+        try {
+            walk.accept(out);
+            int length = out.finish();
+            t.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            sendBytes(t, 200, out.buf, length);
+        } finally {
+            if (out.buf.length <= MAX_KEPT_SCRATCH) scratch.offer(out.buf);
+        }
+    }
+
+    // Appends each value as ASCII to buf, comma separated, doubling buf when a value might not fit
+    private static final class IntArrayWriter implements IntConsumer {
+        // worst case per value: ',' + '-' + 10 digits
+        private static final int MAX_VALUE_BYTES = 12;
+
+        byte[] buf;
+        private int pos;
+
+        IntArrayWriter(byte[] buf) {
+            this.buf = buf;
+            buf[pos++] = '[';
+        }
+
+        @Override
+        public void accept(int value) {
+            ensureRoom(MAX_VALUE_BYTES);
+            if (pos > 1) buf[pos++] = ',';
+            pos = writeInt(buf, pos, value);
+        }
+
+        // closes the array; returns the length written
+        int finish() {
+            ensureRoom(1);
+            buf[pos++] = ']';
+            return pos;
+        }
+
+        private void ensureRoom(int bytes) {
+            if (pos + bytes <= buf.length) return;
+            long grown = Math.max(2L * buf.length, (long) pos + bytes);
+            if (grown > Integer.MAX_VALUE - 8) throw new IllegalStateException("Response too large");
+            buf = Arrays.copyOf(buf, (int) grown);
+        }
+    }
+
+    // ASCII digits of value at buf[pos...]; returns the position after the last digit
+    private static int writeInt(byte[] buf, int pos, int value) {
+        long v = value; // long so Integer.MIN_VALUE negates cleanly
+        if (v < 0) {
+            buf[pos++] = '-';
+            v = -v;
+        }
+        int start = pos;
+        do {
+            buf[pos++] = (byte) ('0' + (v % 10));
+            v /= 10;
+        } while (v > 0);
+        // digits came out backwards
+        for (int i = start, j = pos - 1; i < j; i++, j--) {
+            byte tmp = buf[i];
+            buf[i] = buf[j];
+            buf[j] = tmp;
+        }
+        return pos;
+    }
+
+    // Length 0 means "chunked" to HttpExchange, so an empty body has to be sent as -1
+    private static void sendBytes(HttpExchange t, int code, byte[] bytes, int length) throws IOException {
+        if (length == 0) {
+            t.sendResponseHeaders(code, -1);
+            t.close();
+            return;
+        }
+        t.sendResponseHeaders(code, length);
+        try (OutputStream os = t.getResponseBody()) { os.write(bytes, 0, length); }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,44 @@
+package com.rbtree;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class BenchmarkTest {
+
+    @Test
+    void testSeededInputIsReproducible() {
+        for (String type : new String[] {"random", "zipf", "clustered", "duplicates"}) {
+            assertArrayEquals(Benchmark.generateInput(1000, type, 7), Benchmark.generateInput(1000, type, 7),
+                type + " input should only depend on the seed");
+        }
+    }
+
+    @Test
+    void testDuplicateHeavyInputRepeatsKeys() {
+        Set<Integer> distinct = new HashSet<>();
+        for (int k : Benchmark.generateInput(10_000, "duplicates", 1)) distinct.add(k);
+        assertTrue(distinct.size() <= 100, "expected at most 100 distinct keys, got " + distinct.size());
+    }
+
+    @Test
+    void testRunReportsEveryPhase() {
+        Benchmark b = Benchmark.run(2_000, "clustered", 3, 1, 2);
+        String json = b.toJson();
+        assertTrue(json.contains("\"latencyNs\""));
+        assertTrue(json.contains("\"allocBytesPerOp\""));
+        // one Node per inserted key, unless the JVM can't count allocations (-1)
+        assertTrue(b.bytesPerKey() == -1 || b.bytesPerKey() >= MemoryReport.nodeBytes() * 0.9,
+            "bytesPerKey = " + b.bytesPerKey());
+    }
+
+    @Test
+    void testTotalWorkIsCapped() {
+        assertThrows(IllegalArgumentException.class, () -> Benchmark.run(Benchmark.MAX_N, "random", 1, 0, 100_000));
+        // warmup + trials overflowed int, which used to run zero trials
+        assertThrows(IllegalArgumentException.class, () -> Benchmark.run(1, "random", 1, Integer.MAX_VALUE, 1));
+    }
+}
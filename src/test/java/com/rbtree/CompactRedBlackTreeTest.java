@@ -0,0 +1,101 @@
+package com.rbtree;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CompactRedBlackTreeTest {
+
+    private CompactRedBlackTree tree;
+
+    @BeforeEach
+    void setUp() {
+        tree = new CompactRedBlackTree();
+    }
+
+    @Test
+    void testSortedInsertStaysBalanced() {
+        // Sorted input is the worst case for a plain BST; this also forces the arrays to grow a few times.
+        for (int i = 0; i < 10_000; i++) {
+            tree.insert(i);
+        }
+        assertEquals(10_000, tree.size());
+        int blackHeight = tree.validate();
+        // black height of an RB tree with n nodes is at most log2(n+1) + 1 (counting NIL)
+        assertTrue(blackHeight <= 15, "Black height too large: " + blackHeight);
+
+        int[] sorted = tree.toSortedArray();
+        for (int i = 0; i < sorted.length; i++) {
+            assertEquals(i, sorted[i]);
+        }
+    }
+
+    @Test
+    void testRandomInsertDeleteMatchesReference() {
+        // Mix of inserts and deletes (with duplicates) checked against a sorted list after every step.
+        Random rand = new Random(42);
+        List<Integer> reference = new ArrayList<>();
+
+        for (int step = 0; step < 5_000; step++) {
+            int key = rand.nextInt(500);
+            if (rand.nextInt(3) == 0) {
+                boolean expected = reference.remove(Integer.valueOf(key));
+                assertEquals(expected, tree.delete(key), "delete(" + key + ") at step " + step);
+            } else {
+                reference.add(key);
+                tree.insert(key);
+            }
+            tree.validate();
+        }
+
+        Collections.sort(reference);
+        int[] actual = tree.toSortedArray();
+        assertEquals(reference.size(), actual.length);
+        for (int i = 0; i < actual.length; i++) {
+            assertEquals(reference.get(i).intValue(), actual[i]);
+        }
+    }
+
+    @Test
+    void testDeleteEverythingReusesSlots() {
+        for (int i = 0; i < 1_000; i++) tree.insert(i);
+        long before = tree.estimatedBytes();
+
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(tree.delete(i));
+        }
+        assertEquals(0, tree.size());
+        assertFalse(tree.contains(5));
+
+        // Re-inserting the same number of keys must come from the free list, not new capacity.
+        for (int i = 0; i < 1_000; i++) tree.insert(i);
+        assertEquals(before, tree.estimatedBytes());
+        tree.validate();
+    }
+
+    @Test
+    void testCompactLayoutIsSmallerThanNodes() {
+        for (int i = 0; i < 100_000; i++) tree.insert(i);
+        assertTrue(tree.bytesPerEntry() < MemoryReport.nodeBytes(),
+            "Compact layout uses " + tree.bytesPerEntry() + " bytes/key vs " + MemoryReport.nodeBytes() + " for Node");
+    }
+
+    @Test
+    void testMemoryReportUsesTheSameEstimate() {
+        // an exactly-sized tree is what MemoryReport's "compact" figures describe
+        CompactRedBlackTree exact = new CompactRedBlackTree(1000);
+        for (int i = 0; i < 1000; i++) exact.insert(i);
+        assertEquals(CompactRedBlackTree.bytesForCapacity(1001), exact.estimatedBytes());
+
+        RedBlackTree nodes = new RedBlackTree();
+        nodes.setPersistPath(null);
+        for (int i = 0; i < 1000; i++) nodes.insert(i);
+        assertTrue(MemoryReport.forTree(nodes).toJson().contains("\"totalBytes\": " + exact.estimatedBytes() + "}"));
+    }
+}
@@ -0,0 +1,116 @@
+package com.rbtree;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ExpiringRedBlackTreeTest {
+
+    // Fake clock so expiry is deterministic
+    private final AtomicLong now = new AtomicLong(1_000);
+    private RedBlackTree tree;
+    private ExpiringRedBlackTree expiring;
+
+    @BeforeEach
+    void setUp() {
+        tree = new RedBlackTree();
+        expiring = new ExpiringRedBlackTree(tree, now::get, 2);
+    }
+
+    @Test
+    void testExpiredKeysAreEvictedInOrder() {
+        expiring.insert(10, 100);  // expires at 1100
+        expiring.insert(20, 50);   // expires at 1050
+        expiring.insert(30);       // never expires
+
+        now.set(1_060);
+        assertEquals(1, expiring.evictExpired(10));
+        assertNull(tree.search(20), "20 expired first and should be gone");
+        assertNotNull(tree.search(10));
+
+        now.set(1_200);
+        assertEquals(1, expiring.evictExpired(10));
+        assertNull(tree.search(10));
+        assertNotNull(tree.search(30), "Keys inserted without a TTL never expire");
+        assertEquals(0, expiring.scheduledCount());
+    }
+
+    @Test
+    void testEachOperationOnlyEvictsItsBudget() {
+        for (int i = 0; i < 10; i++) {
+            expiring.insert(i, 10);
+        }
+        now.addAndGet(100); // everything is expired now
+
+        // budget is 2, so one more insert should only clean up 2 of the 10
+        expiring.insert(100);
+        assertEquals(8, expiring.scheduledCount());
+        assertEquals(9, tree.getNodeCount());
+    }
+
+    @Test
+    void testReinsertRefreshesExpiryWithoutDuplicate() {
+        expiring.insert(5, 100);
+        now.addAndGet(80);
+        expiring.insert(5, 100); // pushed out to now + 100
+
+        assertEquals(1, tree.getNodeCount());
+        assertEquals(now.get() + 100, expiring.expiresAt(5));
+
+        now.addAndGet(50); // past the original expiry, not the refreshed one
+        assertEquals(0, expiring.evictExpired(10));
+        assertNotNull(tree.search(5));
+    }
+
+    @Test
+    void testDeleteDropsSchedule() {
+        expiring.insert(7, 100);
+        expiring.delete(7);
+        assertEquals(-1, expiring.expiresAt(7));
+        assertEquals(0, expiring.scheduledCount());
+        assertNull(tree.search(7));
+    }
+
+    @Test
+    void testPermanentAndExpiringCopiesDontMix() {
+        // insert(5), insert(5, ttl), delete(5) used to leave a copy of 5 that never expired
+        expiring.insert(5);
+        assertThrows(IllegalArgumentException.class, () -> expiring.insert(5, 100));
+        assertEquals(1, tree.getNodeCount());
+        assertEquals(-1, expiring.expiresAt(5));
+
+        expiring.insert(6, 100);
+        assertThrows(IllegalArgumentException.class, () -> expiring.insert(6));
+        assertEquals(2, tree.getNodeCount());
+
+        // once the TTL has passed the key is gone as far as callers can tell, so it may come back as permanent
+        now.addAndGet(200);
+        assertFalse(expiring.contains(6));
+        expiring.insert(6);
+        assertEquals(-1, expiring.expiresAt(6));
+        assertEquals(2, tree.getNodeCount());
+        assertTrue(expiring.contains(6));
+    }
+
+    @Test
+    void testEvictionSavesJsonOncePerBatch(@TempDir Path dir) throws Exception {
+        Path json = dir.resolve("tree.json");
+        tree.setPersistPath(json.toString());
+        for (int i = 0; i < 5; i++) {
+            expiring.insert(i, 10);
+        }
+        Files.delete(json);
+        now.addAndGet(100);
+
+        assertEquals(5, expiring.evictExpired(10));
+        assertEquals(0, tree.getNodeCount());
+        assertTrue(Files.exists(json), "the batch should still be saved");
+        assertEquals(TreeSerializer.toJson(null), Files.readString(json));
+    }
+}
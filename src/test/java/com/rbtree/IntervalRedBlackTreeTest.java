@@ -0,0 +1,142 @@
+package com.rbtree;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class IntervalRedBlackTreeTest {
+
+    private IntervalRedBlackTree tree;
+
+    @BeforeEach
+    void setUp() {
+        tree = new IntervalRedBlackTree();
+        tree.setPersistPath(null); // never touch the tracked visualization file
+    }
+
+    @Test
+    void testStabbingQuery() {
+        tree.insert(1, 5);
+        tree.insert(3, 8);
+        tree.insert(10, 12);
+        tree.insert(6, 6);
+
+        List<int[]> hits = sorted(tree.stab(5));
+        assertEquals(2, hits.size());
+        assertArrayEquals(new int[] {1, 5}, hits.get(0));
+        assertArrayEquals(new int[] {3, 8}, hits.get(1));
+
+        assertTrue(tree.stab(9).isEmpty());
+    }
+
+    @Test
+    void testVisitorCanStopEarly() {
+        for (int i = 0; i < 100; i++) tree.insert(i, i + 1000);
+        int[] seen = {0};
+        tree.overlapping(500, 600, (start, end) -> ++seen[0] < 3);
+        assertEquals(3, seen[0]);
+    }
+
+    @Test
+    void testLoadSnapshotBuildsPointIntervals() {
+        tree.insert(1, 50);
+        int[] inserts = {0};
+        tree.addMutationListener(new RedBlackTree.MutationListener() {
+            public void onInsert(int data) { inserts[0]++; }
+            public void onDelete(int data) {}
+        });
+        tree.loadSnapshot(new int[] {4, 2, 9, 7});
+        assertEquals(0, inserts[0], "snapshot loads aren't replayed to listeners");
+
+        assertEquals(4, tree.size());
+        tree.verify();
+        assertTrue(tree.stab(10).isEmpty(), "old contents should be gone");
+        List<int[]> hits = sorted(tree.overlapping(5, 9));
+        assertEquals(2, hits.size());
+        assertArrayEquals(new int[] {7, 7}, hits.get(0));
+        assertArrayEquals(new int[] {9, 9}, hits.get(1));
+    }
+
+    @Test
+    void testDebugVerifyCoversIntervalOps() {
+        tree.setDebugVerify(true);
+        for (int i = 0; i < 200; i++) tree.insert(i, i + 5);
+        for (int i = 0; i < 200; i += 3) assertTrue(tree.delete(i, i + 5));
+
+        // same corruption as the RedBlackTree test: a red child under the red pivot of a rotation
+        IntervalRedBlackTree corrupting = new IntervalRedBlackTree() {
+            @Override
+            protected void afterRotate(Node pivot, Node newParent) {
+                if (pivot.isRed && pivot.left == null && pivot.right == null) {
+                    IntervalNode extra = new IntervalNode(pivot.data, pivot.data);
+                    extra.parent = pivot;
+                    pivot.right = extra;
+                }
+                super.afterRotate(pivot, newParent);
+            }
+        };
+        corrupting.setPersistPath(null);
+        corrupting.setDebugVerify(true);
+        corrupting.insert(1, 10);
+        corrupting.insert(2, 10);
+        assertThrows(IllegalStateException.class, () -> corrupting.insert(3, 10));
+    }
+
+    @Test
+    void testRandomOpsMatchLinearScan() {
+        // Same queries answered by a brute-force list after every batch of inserts/deletes.
+        Random rand = new Random(7);
+        List<int[]> reference = new ArrayList<>();
+
+        for (int step = 0; step < 3_000; step++) {
+            if (!reference.isEmpty() && rand.nextInt(4) == 0) {
+                int[] victim = reference.remove(rand.nextInt(reference.size()));
+                assertTrue(tree.delete(victim[0], victim[1]));
+            } else {
+                int start = rand.nextInt(1000);
+                int end = start + rand.nextInt(50);
+                reference.add(new int[] {start, end});
+                tree.insert(start, end);
+            }
+
+            if (step % 100 == 0) {
+                checkMaxEnd(tree.root);
+                int a = rand.nextInt(1000);
+                int b = a + rand.nextInt(30);
+                List<int[]> expected = new ArrayList<>();
+                for (int[] iv : reference) {
+                    if (iv[0] <= b && iv[1] >= a) expected.add(iv);
+                }
+                List<int[]> actual = tree.overlapping(a, b);
+                assertEquals(expected.size(), actual.size(), "overlap count for [" + a + ", " + b + "]");
+                sorted(expected);
+                sorted(actual);
+                for (int i = 0; i < expected.size(); i++) {
+                    assertArrayEquals(expected.get(i), actual.get(i));
+                }
+            }
+        }
+        assertEquals(reference.size(), tree.size());
+        assertFalse(tree.delete(5000, 5001));
+    }
+
+    // maxEnd must equal the real maximum end of each subtree
+    private int checkMaxEnd(Node node) {
+        if (node == null) return Integer.MIN_VALUE;
+        IntervalNode n = (IntervalNode) node;
+        int expected = Math.max(n.end, Math.max(checkMaxEnd(n.left), checkMaxEnd(n.right)));
+        assertEquals(expected, n.maxEnd, "Stale maxEnd at interval starting " + n.data);
+        return expected;
+    }
+
+    private static List<int[]> sorted(List<int[]> list) {
+        list.sort(Comparator.<int[]>comparingInt(iv -> iv[0]).thenComparingInt(iv -> iv[1]));
+        return list;
+    }
+}
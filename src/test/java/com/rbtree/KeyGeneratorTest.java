@@ -0,0 +1,65 @@
+package com.rbtree;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class KeyGeneratorTest {
+
+    @Test
+    void testZipfKeysAreSkewedAndReproducible() {
+        KeyGenerator g1 = KeyGenerator.create("zipf", 1000, 5);
+        KeyGenerator g2 = KeyGenerator.create("zipf", 1000, 5);
+        int zeros = 0;
+        for (int i = 0; i < 10_000; i++) {
+            int k = g1.nextKey();
+            assertEquals(k, g2.nextKey(), "same seed must give the same keys");
+            assertTrue(k >= 0 && k < 1000);
+            if (k == 0) zeros++;
+        }
+        // key 0 gets roughly 1/zeta(1000) ~ 13% of draws under theta 0.99, vs 0.1% if uniform
+        assertTrue(zeros > 800, "key 0 drawn only " + zeros + " times");
+    }
+
+    @Test
+    void testZipfWithTinyKeySpace() {
+        // keySpace 1 and 2 used to divide 0 by 0 when computing eta
+        KeyGenerator one = KeyGenerator.create("zipf", 1, 1);
+        for (int i = 0; i < 1000; i++) assertEquals(0, one.nextKey());
+
+        KeyGenerator two = KeyGenerator.create("zipf", 2, 1);
+        int[] counts = new int[2];
+        for (int i = 0; i < 1000; i++) counts[two.nextKey()]++;
+        assertTrue(counts[0] > counts[1] && counts[1] > 0, counts[0] + " vs " + counts[1]);
+    }
+
+    @Test
+    void testHotspotFavorsFirstTenth() {
+        KeyGenerator g = KeyGenerator.create("hotspot", 1000, 3);
+        int hot = 0;
+        for (int i = 0; i < 10_000; i++) {
+            int k = g.nextKey();
+            assertTrue(k >= 0 && k < 1000);
+            if (k < 100) hot++;
+        }
+        // 90% of draws target the hot 10%
+        assertTrue(hot > 8_700 && hot < 9_300, "hot draws: " + hot);
+
+        // a key space too small to split still works
+        KeyGenerator tiny = KeyGenerator.create("hotspot", 5, 3);
+        for (int i = 0; i < 100; i++) assertTrue(tiny.nextKey() < 5);
+    }
+
+    @Test
+    void testSequentialWraps() {
+        KeyGenerator g = KeyGenerator.create("sequential", 3, 99);
+        int[] expected = {0, 1, 2, 0, 1, 2, 0};
+        for (int e : expected) assertEquals(e, g.nextKey());
+    }
+
+    @Test
+    void testRejectsBadArguments() {
+        assertThrows(IllegalArgumentException.class, () -> KeyGenerator.create("zipf", 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> KeyGenerator.create("gaussian", 10, 1));
+    }
+}
@@ -0,0 +1,49 @@
+package com.rbtree;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testPercentilesWithinPrecision() {
+        LatencyHistogram h = new LatencyHistogram();
+        // 1 µs .. 10 ms in 1 µs steps
+        for (long v = 1; v <= 10_000; v++) {
+            h.record(v * 1000);
+        }
+        assertEquals(10_000, h.getCount());
+        assertClose(5_000_000, h.getValueAtPercentile(50));
+        assertClose(9_900_000, h.getValueAtPercentile(99));
+        assertClose(9_990_000, h.getValueAtPercentile(99.9));
+        assertEquals(10_000_000, h.getValueAtPercentile(100));
+        assertEquals(1000, h.getMin());
+    }
+
+    @Test
+    void testSmallValuesAreExact() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int v = 0; v < 200; v++) h.record(v);
+        assertEquals(99, h.getValueAtPercentile(50));
+        assertEquals(199, h.getMax());
+    }
+
+    @Test
+    void testMergeAddsCounts() {
+        LatencyHistogram a = new LatencyHistogram();
+        LatencyHistogram b = new LatencyHistogram();
+        for (int i = 0; i < 100; i++) a.record(1_000);
+        for (int i = 0; i < 100; i++) b.record(1_000_000);
+        a.merge(b);
+        assertEquals(200, a.getCount());
+        assertClose(1_000, a.getValueAtPercentile(50));
+        assertClose(1_000_000, a.getValueAtPercentile(51));
+    }
+
+    // bucket error is under 1%
+    private static void assertClose(long expected, long actual) {
+        assertTrue(Math.abs(actual - expected) <= expected / 100,
+            "expected ~" + expected + " but was " + actual);
+    }
+}
@@ -164,4 +164,85 @@ class RedBlackTreePropertiesTest {
         // If this node is black, add 1 to the count. If red, add 0.
         return leftHeight + (node.isRed ? 0 : 1);
     }
-}
\ No newline at end of file
+
+    // =========================================================
+    // verify() / profile(): the same properties, checked by the tree itself
+    // =========================================================
+    @Test
+    void testVerifyAndProfileOnRandomTree() {
+        Random rand = new Random(3);
+        tree.setPersistPath(null);
+        tree.setDebugVerify(true); // every op below also checks its own path
+        for (int i = 0; i < 2000; i++) tree.insert(rand.nextInt(5000));
+        for (int i = 0; i < 1000; i++) tree.delete(rand.nextInt(5000));
+
+        tree.verify();
+        TreeProfile p = tree.profile();
+        assertTrue(p.isValid());
+        assertEquals(tree.getNodeCount(), p.getNodeCount());
+
+        // an RB tree is never more than 2 * log2(n + 1) tall
+        double bound = 2 * Math.log(p.getNodeCount() + 1) / Math.log(2);
+        assertTrue(p.getHeight() <= bound, "Height " + p.getHeight() + " exceeds " + bound);
+        assertEquals(validateBlackHeight(tree.root) - 1, p.getBlackHeight(), "profile doesn't count NIL");
+
+        int sum = 0;
+        for (int c : p.getDepthHistogram()) sum += c;
+        assertEquals(p.getNodeCount(), sum);
+    }
+
+    @Test
+    void testDebugVerifyChecksRotatedNodes() {
+        // Hangs a red child under the red pivot of each rotation. Inserting 1, 2, 3 rotates 1 down
+        // beside 3, off 3's path to the root, so only checking the inserted node's path would miss it.
+        RedBlackTree corrupting = new RedBlackTree() {
+            @Override
+            protected void afterRotate(Node pivot, Node newParent) {
+                if (pivot.isRed && pivot.left == null && pivot.right == null) {
+                    Node extra = new Node(pivot.data);
+                    extra.parent = pivot;
+                    pivot.right = extra;
+                }
+            }
+        };
+        corrupting.setPersistPath(null);
+        corrupting.setDebugVerify(true);
+        corrupting.insert(1);
+        corrupting.insert(2);
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> corrupting.insert(3));
+        assertTrue(e.getMessage().contains("Red node 1"), e.getMessage());
+    }
+
+    @Test
+    void testProfileOfSmallTree() {
+        // 10, 20, 30 rotates into 20 (black) with red children 10 and 30
+        tree.insert(10);
+        tree.insert(20);
+        tree.insert(30);
+
+        TreeProfile p = tree.profile();
+        assertEquals(2, p.getHeight());
+        assertEquals(1, p.getBlackHeight());
+        assertArrayEquals(new int[] {1, 2}, p.getDepthHistogram());
+        assertEquals(2.0 / 3, p.getRedRatio(), 1e-9);
+        assertEquals(5.0 / 3, p.getAverageSearchPathLength(), 1e-9);
+    }
+
+    @Test
+    void testVerifyCatchesCorruption() {
+        tree.insert(10);
+        tree.insert(20);
+        tree.insert(30);
+
+        // paint the root red behind the tree's back
+        tree.root.isRed = true;
+        assertThrows(IllegalStateException.class, tree::verify);
+        assertFalse(tree.profile().isValid());
+
+        // black child under root -> black heights differ
+        tree.root.isRed = false;
+        tree.root.left.isRed = false;
+        IllegalStateException e = assertThrows(IllegalStateException.class, tree::verify);
+        assertTrue(e.getMessage().contains("Black height"), e.getMessage());
+    }
+}
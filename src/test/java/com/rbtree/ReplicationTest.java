@@ -0,0 +1,83 @@
+package com.rbtree;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+// Leader and follower talk over loopback inside one JVM.
+class ReplicationTest {
+
+    private RedBlackTree leaderTree;
+    private RedBlackTree followerTree;
+    private ReplicationLeader leader;
+    private ReplicationFollower follower;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        leaderTree = new RedBlackTree();
+        followerTree = new RedBlackTree();
+        leaderTree.setPersistPath(null);
+        followerTree.setPersistPath(null);
+
+        leader = new ReplicationLeader(leaderTree, 0);
+        leader.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (follower != null) follower.stop();
+        leader.stop();
+    }
+
+    @Test
+    void testSnapshotThenLiveMutations() throws Exception {
+        // these are already on the leader before the follower shows up -> arrive via snapshot
+        for (int i = 0; i < 100; i++) leaderTree.insert(i);
+
+        follower = new ReplicationFollower(followerTree, "localhost", leader.getPort());
+        follower.start();
+        awaitSameContents();
+
+        // these are streamed as individual mutations
+        for (int i = 100; i < 200; i++) leaderTree.insert(i);
+        for (int i = 0; i < 50; i++) leaderTree.delete(i);
+        awaitSameContents();
+
+        assertEquals(150, followerTree.getNodeCount());
+        assertEquals(List.of(50, 51, 52), followerTree.range(50, 52));
+        assertNull(followerTree.search(10));
+    }
+
+    @Test
+    void testFollowerCatchesUpAfterReconnect() throws Exception {
+        follower = new ReplicationFollower(followerTree, "localhost", leader.getPort());
+        follower.start();
+        leaderTree.insert(1);
+        awaitSameContents();
+
+        follower.stop();
+        // the leader keeps changing while the follower is away
+        leaderTree.insert(2);
+        leaderTree.delete(1);
+
+        follower = new ReplicationFollower(followerTree, "localhost", leader.getPort());
+        follower.start();
+        awaitSameContents();
+        assertEquals(List.of(2), followerTree.range(Integer.MIN_VALUE, Integer.MAX_VALUE));
+    }
+
+    private void awaitSameContents() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            List<Integer> expected = leaderTree.range(Integer.MIN_VALUE, Integer.MAX_VALUE);
+            if (expected.equals(followerTree.range(Integer.MIN_VALUE, Integer.MAX_VALUE))) return;
+            Thread.sleep(10);
+        }
+        fail("Follower didn't catch up. Leader: " + leaderTree.range(Integer.MIN_VALUE, Integer.MAX_VALUE)
+            + " Follower: " + followerTree.range(Integer.MIN_VALUE, Integer.MAX_VALUE));
+    }
+}
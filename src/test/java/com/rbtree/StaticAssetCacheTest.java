@@ -0,0 +1,52 @@
+package com.rbtree;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class StaticAssetCacheTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testResolveStaysInsideRoot() throws Exception {
+        Files.writeString(dir.resolve("index.html"), "<html></html>");
+        StaticAssetCache cache = new StaticAssetCache(dir.resolve("."));
+
+        assertNotNull(cache.resolve("/index.html"));
+        assertNull(cache.resolve("/missing.html"));
+        assertNull(cache.resolve("/../" + dir.getFileName() + "/../etc/passwd"));
+    }
+
+    @Test
+    void testCachedUntilFileChanges() throws Exception {
+        Path js = dir.resolve("app.js");
+        Files.writeString(js, "console.log('hello');\n".repeat(200));
+        StaticAssetCache cache = new StaticAssetCache(dir);
+
+        StaticAssetCache.Asset first = cache.get(js);
+        assertSame(first, cache.get(js), "unchanged file should come from the cache");
+        assertNotNull(first.gzipped, "repetitive text should compress");
+        assertTrue(first.gzipped.length < first.body.length);
+        assertNotEquals(first.etag, first.gzipEtag);
+
+        Files.writeString(js, "console.log('changed');\n");
+        Files.setLastModifiedTime(js, FileTime.fromMillis(first.modified + 5000));
+        StaticAssetCache.Asset second = cache.get(js);
+        assertNotSame(first, second);
+        assertNotEquals(first.etag, second.etag);
+    }
+
+    @Test
+    void testLargeFilesAreNotCached() throws Exception {
+        Path big = dir.resolve("big.bin");
+        Files.write(big, new byte[(int) StaticAssetCache.MAX_CACHED_BYTES + 1]);
+        assertNull(new StaticAssetCache(dir).get(big));
+    }
+}
@@ -0,0 +1,159 @@
+package com.rbtree;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.StringJoiner;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Talks to a real WebServer on a free port, with static files served from a temp dir
+class WebServerTest {
+
+    @TempDir
+    Path dir;
+
+    private RedBlackTree tree;
+    private WebServer server;
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final String page = "<html><body>" + "red black tree ".repeat(200) + "</body></html>";
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path root = Files.createDirectory(dir.resolve("static"));
+        Files.writeString(root.resolve("index.html"), page);
+        Files.writeString(dir.resolve("secret.txt"), "outside the static root");
+        tree = new RedBlackTree();
+        tree.setPersistPath(null);
+        server = new WebServer(tree, 0, false, root);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    void testNodesOfEmptyTree() throws Exception {
+        HttpResponse<String> r = get("/nodes");
+        assertEquals(200, r.statusCode());
+        assertEquals("[]", r.body());
+    }
+
+    @Test
+    void testNodesWritesExtremeValues() throws Exception {
+        int[] values = {0, Integer.MIN_VALUE, Integer.MAX_VALUE, -5, 1_000_000_007, -1, 10};
+        for (int v : values) tree.insert(v);
+
+        // same preorder the handler uses, formatted by the JDK instead of writeInt
+        StringJoiner expected = new StringJoiner(",", "[", "]");
+        for (int v : tree.getAllValues()) expected.add(Integer.toString(v));
+
+        HttpResponse<String> r = get("/nodes");
+        assertEquals(expected.toString(), r.body());
+        assertTrue(r.body().contains("-2147483648"));
+        assertEquals("[-2147483648,-5,-1]", get("/range?to=-1").body());
+    }
+
+    @Test
+    void testNodesGrowsPastScratchBuffer() throws Exception {
+        // ~12 bytes per value, well past the 8 KB starting buffer
+        for (int i = 0; i < 5000; i++) tree.insert(-1_000_000_000 + i * 7919);
+        StringJoiner expected = new StringJoiner(",", "[", "]");
+        for (int v : tree.getAllValues()) expected.add(Integer.toString(v));
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(expected.toString(), get("/nodes").body(), "pooled buffer reused on request " + i);
+        }
+        StringJoiner inRange = new StringJoiner(",", "[", "]");
+        for (int v : tree.range(-990_000_000, -980_000_000)) inRange.add(Integer.toString(v));
+        assertEquals(inRange.toString(), get("/range?from=-990000000&to=-980000000").body());
+    }
+
+    @Test
+    void testStaticFileGzipAndEtag() throws Exception {
+        HttpResponse<byte[]> plain = getBytes(HttpRequest.newBuilder(uri("/")));
+        assertEquals(200, plain.statusCode());
+        assertEquals(page, new String(plain.body(), StandardCharsets.UTF_8));
+        assertTrue(plain.headers().firstValue("Content-Encoding").isEmpty());
+        String etag = plain.headers().firstValue("ETag").orElseThrow();
+
+        HttpResponse<byte[]> gz = getBytes(HttpRequest.newBuilder(uri("/index.html"))
+            .header("Accept-Encoding", "gzip, deflate"));
+        assertEquals("gzip", gz.headers().firstValue("Content-Encoding").orElse(null));
+        assertEquals("Accept-Encoding", gz.headers().firstValue("Vary").orElse(null));
+        assertTrue(gz.body().length < page.length());
+        assertEquals(page, gunzip(gz.body()));
+        String gzEtag = gz.headers().firstValue("ETag").orElseThrow();
+        assertNotEquals(etag, gzEtag, "the gzip body is a different representation");
+
+        // revalidating with the matching tag gets an empty 304
+        HttpResponse<byte[]> notModified = getBytes(HttpRequest.newBuilder(uri("/index.html"))
+            .header("If-None-Match", etag));
+        assertEquals(304, notModified.statusCode());
+        assertEquals(0, notModified.body().length);
+
+        // the plain tag doesn't validate the gzip representation
+        HttpResponse<byte[]> mismatch = getBytes(HttpRequest.newBuilder(uri("/index.html"))
+            .header("Accept-Encoding", "gzip").header("If-None-Match", etag));
+        assertEquals(200, mismatch.statusCode());
+    }
+
+    @Test
+    void testHeadAndMissingFiles() throws Exception {
+        HttpResponse<byte[]> head = getBytes(HttpRequest.newBuilder(uri("/index.html"))
+            .method("HEAD", HttpRequest.BodyPublishers.noBody()));
+        assertEquals(200, head.statusCode());
+        assertEquals(0, head.body().length);
+        assertTrue(head.headers().firstValue("ETag").isPresent());
+
+        assertEquals(404, get("/missing.js").statusCode());
+        assertEquals(404, get("/../secret.txt").statusCode());
+        assertEquals(404, get("/%2e%2e/secret.txt").statusCode());
+    }
+
+    @Test
+    void testInsertAndDeleteParseParameters() throws Exception {
+        assertEquals(200, get("/insert?value=5&extra").statusCode());
+        assertEquals("{\"found\": true}", get("/search?value=5&x=1").body());
+        assertEquals(200, get("/delete?value=5&anything").statusCode());
+        assertEquals(0, tree.getNodeCount());
+        assertEquals("{\"found\": false}", get("/search?x=1&value=5").body());
+    }
+
+    @Test
+    void testBenchmarkRejectsTooMuchWork() throws Exception {
+        assertEquals(400, get("/benchmark?n=5000000&trials=100000").statusCode());
+        assertEquals(400, get("/benchmark?n=10&warmup=2147483647").statusCode());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.getPort() + path);
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<byte[]> getBytes(HttpRequest.Builder request) throws Exception {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static String gunzip(byte[] body) throws Exception {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -156,7 +156,7 @@ function createChart(canvasId, title) {
             labels: [],
             datasets: [
                 { 
-                    label: 'Red-Black Tree (Measured)',
+                    label: 'Mean (measured)',
                     borderColor: '#2ecc71',
                     backgroundColor: 'rgba(46,204,113,0.15)',
                     data: [],
@@ -166,20 +166,19 @@ function createChart(canvasId, title) {
                     pointRadius: 3
                 },
                 { 
-                    label: 'AVL Tree (Reference)',
-                    borderColor: '#3498db',
-                    borderDash: [6, 4],
+                    label: 'p99 (measured)',
+                    borderColor: '#e67e22',
                     data: [],
                     tension: 0.2,
                     fill: false,
-                    pointRadius: 0
+                    pointRadius: 2
                 },
                 { 
-                    label: 'BST Worst-Case (Reference)',
-                    borderColor: '#e74c3c',
-                    borderDash: [2, 3],
+                    label: 'c · log2(n) (reference)',
+                    borderColor: '#3498db',
+                    borderDash: [6, 4],
                     data: [],
-                    tension: 0.0,
+                    tension: 0.2,
                     fill: false,
                     pointRadius: 0
                 }
@@ -190,7 +189,7 @@ function createChart(canvasId, title) {
             maintainAspectRatio: false,
             scales: {
                 x: { title: { display: true, text: 'Tree Size (N)' } },
-                y: { title: { display: true, text: 'Avg Time (µs)' }, beginAtZero: true }
+                y: { title: { display: true, text: 'Time per op (µs)' }, beginAtZero: true }
             },
             plugins: {
                 legend: { position: 'top' },
@@ -201,9 +200,9 @@ function createChart(canvasId, title) {
 }
 
 function initCharts() {
-    insertChart = createChart('insertChart', 'Insertion Cost: O(log n) vs O(n)');
-    searchChart = createChart('searchChart', 'Search Cost: O(log n) vs O(n)');
-    deleteChart = createChart('deleteChart', 'Deletion Cost: O(log n) vs O(n)');
+    insertChart = createChart('insertChart', 'Insertion Cost per Operation');
+    searchChart = createChart('searchChart', 'Search Cost per Operation');
+    deleteChart = createChart('deleteChart', 'Deletion Cost per Operation');
 }
 
 function resetCharts() {
@@ -214,46 +213,47 @@ function resetCharts() {
     });
 }
 
-function updateChartData(chart, n, measuredVal, baselineVal) {
-    chart.data.labels.push(String(n));
-    chart.data.datasets[0].data.push(measuredVal);
-    chart.data.datasets[1].data.push(measuredVal * 1.05); 
-    const c = baselineVal / 100; // 100 is our first N
-    chart.data.datasets[2].data.push(c * n);
+// latency = one entry of the server's latencyNs object; baseline = {n, mean} of the first point
+function updateChartData(chart, n, latency, baseline) {
+    chart.data.labels.push(n.toLocaleString());
+    chart.data.datasets[0].data.push(latency.mean / 1000);
+    chart.data.datasets[1].data.push(latency.p99 / 1000);
+    // scale log2(n) so it starts at the first measured mean
+    const c = (baseline.mean / 1000) / Math.log2(baseline.n);
+    chart.data.datasets[2].data.push(c * Math.log2(n));
     chart.update();
 }
 
 document.getElementById('runBenchBtn').addEventListener('click', async () => {
-    // Removed reportBox logic here
-    if (!confirm("Run Benchmark? (Samples: 100 to 2,500)")) return;
+    if (!confirm("Run Benchmark? (1,000 to 2,000,000 keys, random input — the large sizes take a while)")) return;
 
     resetCharts();
 
-    const testSizes = [100, 200, 300, 400, 500, 750, 1000, 1500, 2000, 2500];
-    let baselines = { insert: null, search: null, delete: null };
+    const testSizes = [1000, 5000, 10000, 50000, 100000, 250000, 500000, 1000000, 2000000];
+    let baselines = null;
 
-    for (let i = 0; i < testSizes.length; i++) {
-        const n = testSizes[i];
-        
+    for (const n of testSizes) {
         try {
-            const res = await fetch(`/benchmark?n=${n}&type=random`);
+            // fixed seed so reruns are comparable; fewer trials at the big sizes
+            const trials = n >= 500000 ? 2 : 5;
+            const warmup = n >= 500000 ? 1 : 2;
+            const res = await fetch(`/benchmark?n=${n}&type=random&seed=42&warmup=${warmup}&trials=${trials}`);
             if (!res.ok) throw new Error('Fetch failed');
             
             const realData = await res.json();
-            
-            const tInsert = (realData.insert / Math.max(1, n)) * 1000; 
-            const tSearch = ((realData.search || realData.insert * 0.7) / Math.max(1, n)) * 1000;
-            const tDelete = ((realData.delete || realData.insert * 1.2) / Math.max(1, n)) * 1000;
-
-            if (i === 0) {
-                baselines.insert = tInsert || 1;
-                baselines.search = tSearch || 1;
-                baselines.delete = tDelete || 1;
+            const lat = realData.latencyNs;
+
+            if (baselines === null) {
+                baselines = {
+                    insert: { n, mean: lat.insert.mean || 1 },
+                    search: { n, mean: lat.search.mean || 1 },
+                    delete: { n, mean: lat.delete.mean || 1 }
+                };
             }
 
-            updateChartData(insertChart, n, tInsert, baselines.insert);
-            updateChartData(searchChart, n, tSearch, baselines.search);
-            updateChartData(deleteChart, n, tDelete, baselines.delete);
+            updateChartData(insertChart, n, lat.insert, baselines.insert);
+            updateChartData(searchChart, n, lat.search, baselines.search);
+            updateChartData(deleteChart, n, lat.delete, baselines.delete);
 
         } catch (err) {
             console.error(err);